@@ -1,38 +1,83 @@
 package net.finance;
 
 import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.CloseAxisAdapter;
+import net.finance.tracker.domain.axis.HighAxisAdapter;
+import net.finance.tracker.domain.axis.LowAxisAdapter;
 import net.finance.tracker.domain.axis.OpenAxisAdapter;
 import net.finance.tracker.domain.calculation.*;
 import net.finance.tracker.domain.series.FinanceData;
 import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesField;
+import net.finance.tracker.io.matrix.CorrelationMatrixFileWriter;
+import net.finance.tracker.io.store.SeriesStore;
 import net.finance.tracker.util.logging.LoggingListener;
 import net.finance.tracker.util.logging.NoopListener;
 import net.finance.tracker.io.scrapper.FinanceDataLoader;
 import net.finance.tracker.util.pattern.Listener;
 
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Writer;
 import java.math.MathContext;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 public class App {
+    private static final String CALCULATOR_ARGUMENT = "-calculator=";
+    private static final String TOP_PAIRS_ARGUMENT = "-top=";
+    private static final String OUTPUT_ARGUMENT = "-output=";
+    private static final String APPROXIMATE_ARGUMENT = "-approximate";
+    private static final String CROSS_ARGUMENT = "-cross";
+    private static final String TRANSFORM_ARGUMENT = "-transform=";
+    private static final String FIELDS_ARGUMENT = "-fields=";
+    private static final String WORKERS_ARGUMENT = "-workers=";
+    private static final String JOURNAL_ARGUMENT = "-journal=";
+    private static final String TIMEOUT_ARGUMENT = "-timeout=";
+    private static final String STORE_ARGUMENT = "-store=";
+
     public static void main( String[] args ) throws Exception {
         Listener<Exception> exceptionListener = getListenerFromProgramArguments(args);
 
-        FinanceData data = new FinanceDataLoader(exceptionListener).call();
+        SeriesStore store = new SeriesStore(Paths.get(getArgumentValue(args, STORE_ARGUMENT, "series-store")));
+        FinanceData data = new FinanceDataLoader(exceptionListener, store).call();
         System.out.println(data.getSummary());
         AxisCleaner axisCleaner = new AxisCleanerImpl();
 
-        CorrelationMatrixCalculator calculator = new CorrelationMatrixCalculatorImpl(exceptionListener, axisCleaner, MathContext.DECIMAL64);
+        CorrelationMatrixCalculator calculator = getCalculatorFromProgramArguments(args, exceptionListener, axisCleaner);
+        String transform = getArgumentValue(args, TRANSFORM_ARGUMENT, "open");
+        System.out.println(String.format("Axis transform: %1$s", transform));
         int nThreads = Runtime.getRuntime().availableProcessors();
-        ExecutorService service = Executors.newFixedThreadPool(nThreads);
+        ExecutorService service = new ForkJoinPool(nThreads);
         try {
-            CorrelationMatrix stocks = correlate(data.getStocks(), calculator, service);
-            CorrelationMatrix rates = correlate(data.getRates(), calculator, service);
+            int topPairs = Integer.parseInt(getArgumentValue(args, TOP_PAIRS_ARGUMENT, "0"));
+            if (topPairs > 0) {
+                boolean approximate = Arrays.asList(args).contains(APPROXIMATE_ARGUMENT);
+                for (CorrelatedPair pair : selectTopPairs(buildAxes(data.getStocks(), transform), topPairs, approximate, exceptionListener, service)) {
+                    System.out.println(pair);
+                }
+            } else if (!getArgumentValue(args, FIELDS_ARGUMENT, "").isEmpty()) {
+                Map<SeriesField, CorrelationMatrix> stocks = new MultiFieldCorrelationCalculator(exceptionListener)
+                        .calculate(new ArrayList<>(data.getStocks().values()), getFieldsFromProgramArguments(args), service);
+            } else if (!getArgumentValue(args, OUTPUT_ARGUMENT, "").isEmpty()) {
+                writeMatrixFile(Paths.get(getArgumentValue(args, OUTPUT_ARGUMENT, "")), buildAxes(data.getStocks(), transform), calculator, service);
+            } else {
+                List<Axis> stockAxes = buildAxes(data.getStocks(), transform);
+                List<Axis> rateAxes = buildAxes(data.getRates(), transform);
+                CorrelationMatrix stocks = calculator.calculate(stockAxes, service);
+                CorrelationMatrix rates = calculator.calculate(rateAxes, service);
+                if (Arrays.asList(args).contains(CROSS_ARGUMENT)) {
+                    RectangularCorrelationMatrix stocksByRates = new RectangularCorrelationCalculator(exceptionListener).calculate(stockAxes, rateAxes, service);
+                }
+            }
         } finally {
             service.shutdown();
         }
@@ -49,12 +94,50 @@ public class App {
         }
     }
 
-    private static CorrelationMatrix correlate(Map<String, Series> seriesMap, CorrelationMatrixCalculator calculator, ExecutorService service) {
-        List<Axis> axes = new ArrayList<>(seriesMap.size() * 2);
+    private static List<Axis> buildAxes(Map<String, Series> seriesMap, String transform) {
+        List<Axis> axes = new ArrayList<>(seriesMap.size());
         for (Map.Entry<String, Series> entry : seriesMap.entrySet()) {
-            axes.add(new OpenAxisAdapter(entry.getValue()));
+            axes.add(buildAxis(entry.getValue(), transform));
+        }
+        return axes;
+    }
+
+    private static Axis buildAxis(Series series, String transform) {
+        switch (transform) {
+            case "open":
+                return new OpenAxisAdapter(series);
+            case "returns":
+                return new CloseAxisAdapter(series).returns();
+            case "logreturns":
+                return new CloseAxisAdapter(series).logReturns();
+            case "range":
+                return new HighAxisAdapter(series).minus(new LowAxisAdapter(series));
+            default:
+                throw new IllegalArgumentException(String.format("Unknown axis transform %1$s", transform));
+        }
+    }
+
+    // Streaming calculators write each tile to the file as it completes; the rest are calculated in memory first.
+    private static void writeMatrixFile(Path path, List<Axis> axes, CorrelationMatrixCalculator calculator, ExecutorService service) throws IOException {
+        if (calculator instanceof StreamingCorrelationMatrixCalculator) {
+            List<String> labels = new ArrayList<>(axes.size());
+            for (Axis axis : axes) {
+                labels.add(axis.getSymbol());
+            }
+            try (CorrelationMatrixFileWriter writer = new CorrelationMatrixFileWriter(path, labels)) {
+                ((StreamingCorrelationMatrixCalculator)calculator).calculate(axes, writer, service);
+            }
+        } else {
+            CorrelationMatrixFileWriter.write(path, calculator.calculate(axes, service));
+        }
+        System.out.println(String.format("Wrote correlation matrix to %1$s", path));
+    }
+
+    private static List<CorrelatedPair> selectTopPairs(List<Axis> axes, int k, boolean approximate, Listener<Exception> exceptionListener, ExecutorService service) {
+        if (approximate) {
+            return new ApproximateCorrelatedPairCalculator(exceptionListener).calculate(axes, new TopCorrelatedPairCollector(k, true), service);
         }
-        return calculator.calculate(axes, service);
+        return new CorrelatedPairCalculator(exceptionListener).calculate(axes, new TopCorrelatedPairCollector(k, true), service);
     }
 
     private static Listener<Exception> getListenerFromProgramArguments(String[] args) {
@@ -67,6 +150,51 @@ public class App {
         return listener;
     }
 
+    private static CorrelationMatrixCalculator getCalculatorFromProgramArguments(String[] args, Listener<Exception> exceptionListener, AxisCleaner axisCleaner) {
+        String calculatorName = getArgumentValue(args, CALCULATOR_ARGUMENT, "decimal");
+        System.out.println(String.format("Correlation calculator: %1$s", calculatorName));
+        switch (calculatorName) {
+            case "decimal":
+                return new CorrelationMatrixCalculatorImpl(exceptionListener, axisCleaner, MathContext.DECIMAL64);
+            case "double":
+                return new DoubleCorrelationMatrixCalculatorImpl(exceptionListener);
+            case "panel":
+                return new PanelCorrelationMatrixCalculatorImpl(exceptionListener);
+            case "fixed":
+                return new FixedPointCorrelationMatrixCalculatorImpl(exceptionListener, MathContext.DECIMAL64);
+            case "spearman":
+                return new SpearmanCorrelationMatrixCalculatorImpl(exceptionListener);
+            case "async":
+                return new AsyncCorrelationMatrixCalculatorImpl(exceptionListener, Long.parseLong(getArgumentValue(args, TIMEOUT_ARGUMENT, "0")));
+            case "resumable":
+                return new ResumableCorrelationMatrixCalculatorImpl(exceptionListener, Paths.get(getArgumentValue(args, JOURNAL_ARGUMENT, "correlation.journal")));
+            case "sharded":
+                return new ShardedCorrelationMatrixCalculatorImpl(exceptionListener, Integer.parseInt(getArgumentValue(args, WORKERS_ARGUMENT, "2")));
+            default:
+                throw new IllegalArgumentException(String.format("Unknown correlation calculator %1$s", calculatorName));
+        }
+    }
+
+    private static Set<SeriesField> getFieldsFromProgramArguments(String[] args) {
+        Set<SeriesField> fields = EnumSet.noneOf(SeriesField.class);
+        for (String field : getArgumentValue(args, FIELDS_ARGUMENT, "").split(",")) {
+            fields.add(SeriesField.valueOf(field.trim().toUpperCase()));
+        }
+        System.out.println(String.format("Correlating fields: %1$s", fields));
+        return fields;
+    }
+
+    private static String getArgumentValue(String[] args, String prefix, String defaultValue) {
+        String result = defaultValue;
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                result = arg.substring(prefix.length());
+                break;
+            }
+        }
+        return result;
+    }
+
     private static boolean isVerboseLoggingEnabled(String[] args) {
         boolean result = false;
         for (String arg : args) {
@@ -8,4 +8,33 @@ public interface Axis {
     int getLength();
     BigDecimal getValue(int i);
     Date getDate(int i);
+
+    default double getDoubleValue(int i) {
+        return getValue(i).doubleValue();
+    }
+
+    // getDate(i).getTime() without the Date, for the calculators' alignment loops.
+    default long getTime(int i) {
+        return getDate(i).getTime();
+    }
+
+    /*
+    Transforms are views evaluated element by element through getDoubleValue, so a chain such as
+    axis.logReturns().demeaned() is computed inside the consuming calculator's loop without copying the axis.
+     */
+    default Axis returns() {
+        return new ReturnAxis(this, false);
+    }
+
+    default Axis logReturns() {
+        return new ReturnAxis(this, true);
+    }
+
+    default Axis demeaned() {
+        return new DemeanedAxis(this);
+    }
+
+    default Axis minus(Axis other) {
+        return new SpreadAxis(this, other);
+    }
 }
@@ -1,11 +1,12 @@
 package net.finance.tracker.domain.axis;
 
 import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesField;
 
 import java.math.BigDecimal;
 import java.util.Date;
 
-public class CloseAxisAdapter implements Axis {
+public class CloseAxisAdapter implements FixedPointAxis {
     private final Series series;
 
     public CloseAxisAdapter(Series series) {
@@ -27,8 +28,28 @@ public class CloseAxisAdapter implements Axis {
         return series.getClose(i);
     }
 
+    @Override
+    public double getDoubleValue(int i) {
+        return series.getDoubleValue(SeriesField.CLOSE, i);
+    }
+
     @Override
     public Date getDate(int i) {
         return series.getDate(i);
     }
+
+    @Override
+    public long getTime(int i) {
+        return series.getTime(i);
+    }
+
+    @Override
+    public int getScale() {
+        return series.getScale();
+    }
+
+    @Override
+    public long getUnscaledValue(int i) {
+        return series.getUnscaledClose(i);
+    }
 }
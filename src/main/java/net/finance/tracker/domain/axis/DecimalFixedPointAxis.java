@@ -0,0 +1,74 @@
+package net.finance.tracker.domain.axis;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Date;
+
+// Fixed point copy of any decimal axis, at the smallest scale that keeps every value exact.
+public class DecimalFixedPointAxis implements FixedPointAxis {
+    private final Axis axis;
+    private final int scale;
+    private final long[] unscaled;
+
+    public DecimalFixedPointAxis(Axis axis) {
+        this.axis = axis;
+        int scale = 0;
+        for (int i = 0; i < axis.getLength(); i++) {
+            scale = Math.max(scale, axis.getValue(i).stripTrailingZeros().scale());
+        }
+        long[] unscaled = new long[axis.getLength()];
+        try {
+            for (int i = 0; i < unscaled.length; i++) {
+                unscaled[i] = axis.getValue(i).setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            }
+        } catch (ArithmeticException e) {
+            scale = -1;
+        }
+        this.scale = scale;
+        this.unscaled = unscaled;
+    }
+
+    public static FixedPointAxis of(Axis axis) {
+        return axis instanceof FixedPointAxis ? (FixedPointAxis)axis : new DecimalFixedPointAxis(axis);
+    }
+
+    @Override
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    public long getUnscaledValue(int i) {
+        return unscaled[i];
+    }
+
+    @Override
+    public String getSymbol() {
+        return axis.getSymbol();
+    }
+
+    @Override
+    public int getLength() {
+        return axis.getLength();
+    }
+
+    @Override
+    public BigDecimal getValue(int i) {
+        return axis.getValue(i);
+    }
+
+    @Override
+    public Date getDate(int i) {
+        return axis.getDate(i);
+    }
+
+    @Override
+    public long getTime(int i) {
+        return axis.getTime(i);
+    }
+
+    @Override
+    public double getDoubleValue(int i) {
+        return axis.getDoubleValue(i);
+    }
+}
@@ -0,0 +1,30 @@
+package net.finance.tracker.domain.axis;
+
+// Source less its mean. The mean takes one pass over the source, made the first time a value is read.
+public class DemeanedAxis extends TransformedAxis {
+    private volatile boolean meanKnown;
+    private double mean;
+
+    public DemeanedAxis(Axis source) {
+        super(source);
+    }
+
+    @Override
+    protected double getSourceValue(int position) {
+        return source.getDoubleValue(position) - getMean();
+    }
+
+    public double getMean() {
+        // Racing threads compute the same value, so the only cost of a race is a repeated pass.
+        if (!meanKnown) {
+            double total = 0.0;
+            int length = source.getLength();
+            for (int i = 0; i < length; i++) {
+                total += source.getDoubleValue(i);
+            }
+            mean = length == 0 ? 0.0 : total / length;
+            meanKnown = true;
+        }
+        return mean;
+    }
+}
@@ -0,0 +1,7 @@
+package net.finance.tracker.domain.axis;
+
+// An axis whose values are exactly getUnscaledValue(i) * 10^-getScale(); a negative scale means it has no such form.
+public interface FixedPointAxis extends Axis {
+    int getScale();
+    long getUnscaledValue(int i);
+}
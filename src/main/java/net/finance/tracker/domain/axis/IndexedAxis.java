@@ -0,0 +1,56 @@
+package net.finance.tracker.domain.axis;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/*
+A view of the given positions of another axis, in order. Nothing is copied - values and dates are read from the
+source on demand. With a stride the positions can be one column of an interleaved array shared by several views.
+ */
+public class IndexedAxis implements Axis {
+    private final Axis source;
+    private final int[] indexes;
+    private final int offset;
+    private final int stride;
+
+    public IndexedAxis(Axis source, int[] indexes) {
+        this(source, indexes, 0, 1);
+    }
+
+    public IndexedAxis(Axis source, int[] indexes, int offset, int stride) {
+        this.source = source;
+        this.indexes = indexes;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    @Override
+    public String getSymbol() {
+        return source.getSymbol();
+    }
+
+    @Override
+    public int getLength() {
+        return indexes.length / stride;
+    }
+
+    @Override
+    public BigDecimal getValue(int i) {
+        return source.getValue(indexes[offset + i * stride]);
+    }
+
+    @Override
+    public double getDoubleValue(int i) {
+        return source.getDoubleValue(indexes[offset + i * stride]);
+    }
+
+    @Override
+    public Date getDate(int i) {
+        return source.getDate(indexes[offset + i * stride]);
+    }
+
+    @Override
+    public long getTime(int i) {
+        return source.getTime(indexes[offset + i * stride]);
+    }
+}
@@ -1,11 +1,12 @@
 package net.finance.tracker.domain.axis;
 
 import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesField;
 
 import java.math.BigDecimal;
 import java.util.Date;
 
-public class OpenAxisAdapter implements Axis {
+public class OpenAxisAdapter implements FixedPointAxis {
     private final Series series;
 
     public OpenAxisAdapter(Series series) {
@@ -27,8 +28,28 @@ public class OpenAxisAdapter implements Axis {
         return series.getOpen(i);
     }
 
+    @Override
+    public double getDoubleValue(int i) {
+        return series.getDoubleValue(SeriesField.OPEN, i);
+    }
+
     @Override
     public Date getDate(int i) {
         return series.getDate(i);
     }
+
+    @Override
+    public long getTime(int i) {
+        return series.getTime(i);
+    }
+
+    @Override
+    public int getScale() {
+        return series.getScale();
+    }
+
+    @Override
+    public long getUnscaledValue(int i) {
+        return series.getUnscaledOpen(i);
+    }
 }
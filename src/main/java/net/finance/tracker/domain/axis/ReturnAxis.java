@@ -0,0 +1,35 @@
+package net.finance.tracker.domain.axis;
+
+import java.util.Date;
+
+// Simple or log return from each observation to the next, dated on the later one - one shorter than its source, less
+// any returns from a zero price.
+public class ReturnAxis extends TransformedAxis {
+    private final boolean log;
+
+    public ReturnAxis(Axis source, boolean log) {
+        super(source);
+        this.log = log;
+    }
+
+    @Override
+    protected int getSourceLength() {
+        return Math.max(0, source.getLength() - 1);
+    }
+
+    @Override
+    protected Date getSourceDate(int position) {
+        return source.getDate(position + 1);
+    }
+
+    @Override
+    protected long getSourceTime(int position) {
+        return source.getTime(position + 1);
+    }
+
+    @Override
+    protected double getSourceValue(int position) {
+        double ratio = source.getDoubleValue(position + 1) / source.getDoubleValue(position);
+        return log ? Math.log(ratio) : ratio - 1.0;
+    }
+}
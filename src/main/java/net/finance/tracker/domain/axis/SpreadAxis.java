@@ -0,0 +1,23 @@
+package net.finance.tracker.domain.axis;
+
+/*
+Difference between two axes observed on the same dates, such as the high and low of one series. Dated and labelled
+by the first axis.
+ */
+public class SpreadAxis extends TransformedAxis {
+    private final Axis other;
+
+    public SpreadAxis(Axis source, Axis other) {
+        super(source);
+        this.other = other;
+        if (source.getLength() != other.getLength()) {
+            throw new IllegalArgumentException(String.format("Can not take the spread of %1$s (%2$d values) and %3$s (%4$d values)",
+                    source.getSymbol(), source.getLength(), other.getSymbol(), other.getLength()));
+        }
+    }
+
+    @Override
+    protected double getSourceValue(int position) {
+        return source.getDoubleValue(position) - other.getDoubleValue(position);
+    }
+}
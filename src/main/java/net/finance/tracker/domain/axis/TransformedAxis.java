@@ -0,0 +1,100 @@
+package net.finance.tracker.domain.axis;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/*
+Base for lazy transforms. Subclasses only define the primitive value at each source position; the BigDecimal form is
+derived from it on demand for the decimal calculator, which is the only consumer that pays an allocation per element.
+
+A transform can produce values that are not finite, such as a return from a zero or missing price. Those positions
+are reported as missing dates rather than passed through. The first read makes one pass to find them, and an index of
+the remaining positions is only kept when there are any.
+ */
+abstract class TransformedAxis implements Axis {
+    protected final Axis source;
+    private volatile boolean indexed;
+    private int[] positions;
+    private int length;
+
+    TransformedAxis(Axis source) {
+        this.source = source;
+    }
+
+    @Override
+    public String getSymbol() {
+        return source.getSymbol();
+    }
+
+    @Override
+    public int getLength() {
+        index();
+        return length;
+    }
+
+    @Override
+    public BigDecimal getValue(int i) {
+        return BigDecimal.valueOf(getDoubleValue(i));
+    }
+
+    @Override
+    public Date getDate(int i) {
+        return getSourceDate(position(i));
+    }
+
+    @Override
+    public long getTime(int i) {
+        return getSourceTime(position(i));
+    }
+
+    @Override
+    public double getDoubleValue(int i) {
+        return getSourceValue(position(i));
+    }
+
+    protected int getSourceLength() {
+        return source.getLength();
+    }
+
+    protected Date getSourceDate(int position) {
+        return source.getDate(position);
+    }
+
+    protected long getSourceTime(int position) {
+        return source.getTime(position);
+    }
+
+    protected abstract double getSourceValue(int position);
+
+    private int position(int i) {
+        index();
+        return positions == null ? i : positions[i];
+    }
+
+    private void index() {
+        // Racing threads build the same index, so the only cost of a race is a repeated pass.
+        if (!indexed) {
+            int sourceLength = getSourceLength();
+            int[] finite = null;
+            int count = 0;
+            for (int position = 0; position < sourceLength; position++) {
+                boolean isFinite = Double.isFinite(getSourceValue(position));
+                if (!isFinite && finite == null) {
+                    finite = new int[sourceLength];
+                    for (int j = 0; j < position; j++) {
+                        finite[j] = j;
+                    }
+                }
+                if (isFinite) {
+                    if (finite != null) {
+                        finite[count] = position;
+                    }
+                    count++;
+                }
+            }
+            positions = finite;
+            length = count;
+            indexed = true;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernel;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernels;
+import net.finance.tracker.domain.panel.DensePanel;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/*
+Screens a large universe for strongly correlated pairs without visiting all n(n-1)/2 of them. Every axis is centred on
+the shared calendar and sketched by the signs of its projections onto random Gaussian hyperplanes - two columns agree
+on a bit with probability 1 - angle/pi, and the angle between centred columns is arccos of their correlation. The bits
+are cut into bands, axes whose band matches land in the same bucket, and only pairs sharing a bucket in at least one
+band are calculated exactly. More bands raise recall, more bits per band cut the number of candidates.
+ */
+public class ApproximateCorrelatedPairCalculator {
+    private static final int DEFAULT_BANDS = 24;
+    private static final int DEFAULT_BITS_PER_BAND = 12;
+    private static final long DEFAULT_SEED = 20181L;
+    private static final int SKETCH_BLOCK = 64;
+    private static final int CANDIDATE_BLOCK = 4096;
+    private static final int EVALUATION_ROUNDS = 3;
+    private final Listener<Exception> exceptionListener;
+    private final int bands;
+    private final int bitsPerBand;
+    private final boolean absolute;
+    private final long seed;
+    private final DotProductKernel kernel;
+
+    public ApproximateCorrelatedPairCalculator(Listener<Exception> exceptionListener) {
+        this(exceptionListener, DEFAULT_BANDS, DEFAULT_BITS_PER_BAND, true, DEFAULT_SEED, DotProductKernels.getDefault());
+    }
+
+    // Absolute also buckets strongly negatively correlated pairs together (their sketches are bitwise complements).
+    public ApproximateCorrelatedPairCalculator(Listener<Exception> exceptionListener, int bands, int bitsPerBand, boolean absolute, long seed, DotProductKernel kernel) {
+        if (bitsPerBand < 1 || bitsPerBand > 31) {
+            throw new IllegalArgumentException(String.format("Bits per band must be between 1 and 31, not %1$d", bitsPerBand));
+        }
+        this.exceptionListener = exceptionListener;
+        this.bands = bands;
+        this.bitsPerBand = bitsPerBand;
+        this.absolute = absolute;
+        this.seed = seed;
+        this.kernel = kernel;
+    }
+
+    public List<CorrelatedPair> calculate(List<Axis> axes, CorrelatedPairCollector collector, ExecutorService service) {
+        search(axes, collector, service);
+        return collector.getPairs();
+    }
+
+    /*
+    Runs the exact calculator over the same query as well, so recall and speedup can be measured. Both searches run once
+    untimed so neither is measured cold, then take turns going first over a few timed rounds; the fastest round of each
+    is reported.
+     */
+    public ApproximationReport evaluate(List<Axis> axes, CorrelatedPairCollector collector, ExecutorService service) {
+        CorrelatedPairCalculator exactCalculator = new CorrelatedPairCalculator(exceptionListener);
+        exactCalculator.calculate(axes, collector.newCollector(), service);
+        search(axes, collector.newCollector(), service);
+
+        List<CorrelatedPair> exact = null;
+        List<CorrelatedPair> approximate = null;
+        int candidates = 0;
+        long exactMillis = Long.MAX_VALUE;
+        long approximateMillis = Long.MAX_VALUE;
+        for (int round = 0; round < EVALUATION_ROUNDS; round++) {
+            for (int turn = 0; turn < 2; turn++) {
+                long startTime = System.currentTimeMillis();
+                if ((round + turn) % 2 == 0) {
+                    exact = exactCalculator.calculate(axes, collector.newCollector(), service);
+                    exactMillis = Math.min(exactMillis, System.currentTimeMillis() - startTime);
+                } else {
+                    // The caller's collector is filled by the last round.
+                    CorrelatedPairCollector roundCollector = round == EVALUATION_ROUNDS - 1 ? collector : collector.newCollector();
+                    candidates = search(axes, roundCollector, service);
+                    approximate = roundCollector.getPairs();
+                    approximateMillis = Math.min(approximateMillis, System.currentTimeMillis() - startTime);
+                }
+            }
+        }
+
+        Set<Long> found = new HashSet<>();
+        for (CorrelatedPair pair : approximate) {
+            found.add(pairKey(axes.size(), pair.getXIndex(), pair.getYIndex()));
+        }
+        int matched = 0;
+        for (CorrelatedPair pair : exact) {
+            if (found.contains(pairKey(axes.size(), pair.getXIndex(), pair.getYIndex()))) {
+                matched++;
+            }
+        }
+        ApproximationReport report = new ApproximationReport(PackedCorrelationMatrix.pairCount(axes.size()), candidates,
+                exact.size(), approximate.size(), matched, exactMillis / 1000.0, approximateMillis / 1000.0);
+        System.out.println(report);
+        return report;
+    }
+
+    private int search(List<Axis> axes, CorrelatedPairCollector collector, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        DensePanel panel = new DensePanel.DensePanelBuilder(axes).build();
+        int[][] signatures = sketch(panel, service);
+        long sketchTime = System.currentTimeMillis();
+        long[] candidates = findCandidates(signatures);
+        long bucketTime = System.currentTimeMillis();
+        checkCandidates(axes, candidates, collector, service);
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Sketched %1$d axes in %2$f/s, bucketed %3$d candidate pairs in %4$f/s, checked them in %5$f/s",
+                axes.size(), (sketchTime - startTime) / 1000.0, candidates.length, (bucketTime - sketchTime) / 1000.0, (stopTime - bucketTime) / 1000.0));
+        return candidates.length;
+    }
+
+    // One int per band per axis; null for an axis with no variance, which can not be correlated with anything.
+    private int[][] sketch(DensePanel panel, ExecutorService service) {
+        int rows = panel.getRowCount();
+        Random random = new Random(seed);
+        double[][] planes = new double[bands * bitsPerBand][rows];
+        for (double[] plane : planes) {
+            for (int i = 0; i < rows; i++) {
+                plane[i] = random.nextGaussian();
+            }
+        }
+
+        int[][] signatures = new int[panel.getColumnCount()][];
+        List<Future<?>> futures = new ArrayList<>();
+        for (int blockStart = 0; blockStart < panel.getColumnCount(); blockStart += SKETCH_BLOCK) {
+            int start = blockStart;
+            int stop = Math.min(blockStart + SKETCH_BLOCK, panel.getColumnCount());
+            futures.add(service.submit(() -> {
+                for (int column = start; column < stop; column++) {
+                    signatures[column] = sketch(panel.getCentredColumn(column), planes);
+                }
+            }));
+        }
+        await(futures);
+        return signatures;
+    }
+
+    private int[] sketch(double[] column, double[][] planes) {
+        if (kernel.dot(column, column, 0, column.length) <= 0.0) {
+            return null;
+        }
+        int mask = (1 << bitsPerBand) - 1;
+        int[] signature = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            int key = 0;
+            for (int bit = 0; bit < bitsPerBand; bit++) {
+                key = key << 1 | (kernel.dot(column, planes[band * bitsPerBand + bit], 0, column.length) >= 0.0 ? 1 : 0);
+            }
+            // A column and its negation give complementary keys; folding on the leading bit lets them share a bucket.
+            if (absolute && (key >>> (bitsPerBand - 1)) != 0) {
+                key = ~key & mask;
+            }
+            signature[band] = key;
+        }
+        return signature;
+    }
+
+    // Sorting (key, axis) pairs per band gives the buckets as runs, then the candidate pair keys are sorted and deduplicated.
+    private long[] findCandidates(int[][] signatures) {
+        int size = signatures.length;
+        long[] entries = new long[size];
+        long[] candidates = new long[Math.max(16, size)];
+        int candidateCount = 0;
+        for (int band = 0; band < bands; band++) {
+            int entryCount = 0;
+            for (int axis = 0; axis < size; axis++) {
+                if (signatures[axis] != null) {
+                    entries[entryCount++] = (long)signatures[axis][band] << 32 | axis;
+                }
+            }
+            Arrays.sort(entries, 0, entryCount);
+            for (int runStart = 0; runStart < entryCount; ) {
+                int runStop = runStart + 1;
+                while (runStop < entryCount && entries[runStop] >>> 32 == entries[runStart] >>> 32) {
+                    runStop++;
+                }
+                for (int i = runStart; i < runStop; i++) {
+                    for (int j = i + 1; j < runStop; j++) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidates.length * 2);
+                        }
+                        candidates[candidateCount++] = pairKey(size, (int)entries[j], (int)entries[i]);
+                    }
+                }
+                runStart = runStop;
+            }
+        }
+        Arrays.sort(candidates, 0, candidateCount);
+        int distinct = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (distinct == 0 || candidates[distinct - 1] != candidates[i]) {
+                candidates[distinct++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, distinct);
+    }
+
+    private void checkCandidates(List<Axis> axes, long[] candidates, CorrelatedPairCollector collector, ExecutorService service) {
+        int size = axes.size();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int blockStart = 0; blockStart < candidates.length; blockStart += CANDIDATE_BLOCK) {
+            int start = blockStart;
+            int stop = Math.min(blockStart + CANDIDATE_BLOCK, candidates.length);
+            futures.add(service.submit(() -> {
+                CorrelatedPairCollector blockCollector = collector.newCollector();
+                PairMoments moments = new PairMoments();
+                for (int i = start; i < stop; i++) {
+                    int y = (int)(candidates[i] / size);
+                    int x = (int)(candidates[i] % size);
+                    Axis xAxis = axes.get(x);
+                    Axis yAxis = axes.get(y);
+                    moments.clear();
+                    try {
+                        double correlation = DoubleCorrelationMatrixCalculatorImpl.FusedCorrelationCalculator.accumulate(xAxis, yAxis, moments).getCorrelation();
+                        blockCollector.offer(x, y, xAxis.getSymbol(), yAxis.getSymbol(), correlation);
+                    } catch (CanNotCalculateException e) {
+                        exceptionListener.listen(e);
+                    }
+                }
+                synchronized (collector) {
+                    collector.addAll(blockCollector);
+                }
+            }));
+        }
+        await(futures);
+    }
+
+    private void await(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                exceptionListener.listen(e);
+            }
+        }
+    }
+
+    private static long pairKey(int size, int x, int y) {
+        return (long)Math.min(x, y) * size + Math.max(x, y);
+    }
+}
@@ -0,0 +1,60 @@
+package net.finance.tracker.domain.calculation;
+
+public class ApproximationReport {
+    private final long pairCount;
+    private final int candidateCount;
+    private final int exactPairCount;
+    private final int approximatePairCount;
+    private final int matchedPairCount;
+    private final double exactSeconds;
+    private final double approximateSeconds;
+
+    public ApproximationReport(long pairCount, int candidateCount, int exactPairCount, int approximatePairCount, int matchedPairCount, double exactSeconds, double approximateSeconds) {
+        this.pairCount = pairCount;
+        this.candidateCount = candidateCount;
+        this.exactPairCount = exactPairCount;
+        this.approximatePairCount = approximatePairCount;
+        this.matchedPairCount = matchedPairCount;
+        this.exactSeconds = exactSeconds;
+        this.approximateSeconds = approximateSeconds;
+    }
+
+    public long getPairCount() {
+        return pairCount;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public int getExactPairCount() {
+        return exactPairCount;
+    }
+
+    public int getApproximatePairCount() {
+        return approximatePairCount;
+    }
+
+    public int getMatchedPairCount() {
+        return matchedPairCount;
+    }
+
+    // Share of the exact answer that the approximate search also found; every pair it returns is exact, so precision is 1.
+    public double getRecall() {
+        return exactPairCount == 0 ? 1.0 : (double)matchedPairCount / exactPairCount;
+    }
+
+    public double getCandidateFraction() {
+        return pairCount == 0 ? 0.0 : (double)candidateCount / pairCount;
+    }
+
+    public double getSpeedup() {
+        return approximateSeconds <= 0.0 ? Double.POSITIVE_INFINITY : exactSeconds / approximateSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Recall %1$f (%2$d of %3$d pairs) checking %4$d of %5$d pairs, exact %6$f/s approximate %7$f/s speedup %8$fx",
+                getRecall(), matchedPairCount, exactPairCount, candidateCount, pairCount, exactSeconds, approximateSeconds, getSpeedup());
+    }
+}
@@ -0,0 +1,82 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Starts the fused double calculation without blocking and returns a CorrelationRun to watch, cancel or wait on. With
+a timeout the run stops taking new tiles once the deadline passes, so an interactive caller gets a partial matrix
+within roughly the timeout plus one tile. calculate blocks on the run for callers of the plain interface.
+ */
+public class AsyncCorrelationMatrixCalculatorImpl implements CorrelationMatrixCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final long timeoutMillis;
+    private final int tileSize;
+
+    public AsyncCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener) {
+        this(exceptionListener, 0L);
+    }
+
+    // A timeout of zero never expires.
+    public AsyncCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, long timeoutMillis) {
+        this(exceptionListener, timeoutMillis, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public AsyncCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, long timeoutMillis, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.timeoutMillis = timeoutMillis;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        CorrelationRun run = start(axes, service);
+        try {
+            run.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.cancel();
+            exceptionListener.listen(e);
+        }
+        System.out.println(String.format("Correlation run finished: %1$s", run));
+        return run.getMatrix();
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    public CorrelationRun start(List<Axis> axes, ExecutorService service) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        PartialCorrelationMatrix matrix = new PartialCorrelationMatrix(labels, tileSize);
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                (xStart, xStop, yStart, yStop) -> new DoubleCorrelationMatrixCalculatorImpl.FusedTile(axes, matrix.getSink(), exceptionListener, xStart, xStop, yStart, yStop));
+        long startTime = System.currentTimeMillis();
+        CorrelationRun run = new CorrelationRun(matrix, tiles.size(), PackedCorrelationMatrix.pairCount(axes.size()), startTime,
+                timeoutMillis > 0 ? startTime + timeoutMillis : 0L);
+        for (CorrelationTile tile : tiles) {
+            service.execute(() -> {
+                try {
+                    if (!run.shouldSkip()) {
+                        tile.invoke();
+                        run.tileCompleted(tile);
+                    }
+                } catch (RuntimeException e) {
+                    exceptionListener.listen(e);
+                } finally {
+                    run.tileFinished();
+                }
+            });
+        }
+        return run;
+    }
+}
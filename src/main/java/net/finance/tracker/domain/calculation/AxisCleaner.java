@@ -2,6 +2,12 @@ package net.finance.tracker.domain.calculation;
 
 import net.finance.tracker.domain.axis.Axis;
 
+import java.util.List;
+
 public interface AxisCleaner {
     CleanedAxes cleanAxes(Axis a, Axis b);
+
+    // Lets a cleaner index every axis of a calculation once before it is asked for pairs of them.
+    default void prepare(List<Axis> axes) {
+    }
 }
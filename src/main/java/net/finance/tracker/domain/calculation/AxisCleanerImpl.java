@@ -1,50 +1,111 @@
 package net.finance.tracker.domain.calculation;
 
 import net.finance.tracker.domain.axis.Axis;
-import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.domain.panel.TradingCalendar;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
+/*
+Aligns pairs through AxisPresence bitsets over a shared TradingCalendar. Axes passed to prepare are converted once;
+any others are indexed against a calendar of just the pair. Nothing is copied: axes on identical calendars pass
+straight through, and otherwise the matches are kept as runs or as index pairs, whichever is smaller. An axis that
+repeats a date cannot be ranked off its bitset, so its pairs come from a date-by-date merge that keeps the first of each
+repeated date.
+ */
 public class AxisCleanerImpl implements AxisCleaner {
+    private volatile Map<Axis, AxisPresence> prepared = Collections.emptyMap();
+
+    @Override
+    public void prepare(List<Axis> axes) {
+        TradingCalendar.TradingCalendarBuilder calendarBuilder = new TradingCalendar.TradingCalendarBuilder();
+        for (Axis axis : axes) {
+            calendarBuilder.addAxis(axis);
+        }
+        TradingCalendar calendar = calendarBuilder.build();
+        Map<Axis, AxisPresence> presence = new IdentityHashMap<>(axes.size());
+        for (Axis axis : axes) {
+            presence.put(axis, new AxisPresence(calendar, axis));
+        }
+        prepared = presence;
+    }
+
     @Override
     public CleanedAxes cleanAxes(Axis a, Axis b) {
-        List<Object[]> records = new ArrayList<>();
-        int aIndex = a.getLength()-1;
-        int bIndex = b.getLength()-1;
-
-        while (aIndex >= 0 && bIndex >= 0) {
-            long aTime = a.getDate(aIndex).getTime();
-            long bTime = b.getDate(bIndex).getTime();
-
-            while (aIndex > 0 && bIndex > 0 && aTime != bTime) {
-                if (aTime < bTime) {
-                    bTime = b.getDate(--bIndex).getTime();
-                } else if (bTime < aTime) {
-                    aTime = a.getDate(--aIndex).getTime();
-                }
+        Map<Axis, AxisPresence> presence = prepared;
+        AxisPresence aPresence = presence.get(a);
+        AxisPresence bPresence = presence.get(b);
+        if (aPresence == null || bPresence == null) {
+            TradingCalendar calendar = new TradingCalendar.TradingCalendarBuilder().addAxis(a).addAxis(b).build();
+            aPresence = new AxisPresence(calendar, a);
+            bPresence = new AxisPresence(calendar, b);
+        }
+
+        int[] pairs;
+        if (aPresence.hasDuplicates() || bPresence.hasDuplicates()) {
+            pairs = mergePairs(a, b);
+        } else if (aPresence.hasSameRows(bPresence) && a.getLength() == b.getLength()) {
+            return new CleanedAxes(a, b);
+        } else {
+            pairs = new int[aPresence.countShared(bPresence) * 2];
+            aPresence.align(bPresence, pairs);
+        }
+        int shared = pairs.length / 2;
+        int runs = countRuns(pairs);
+        if (runs * 3 < pairs.length) {
+            return new RunLengthCleanedAxes(a, b, encodeRuns(pairs, runs), shared);
+        }
+        return new IndexPairCleanedAxes(a, b, pairs);
+    }
+
+    private static int[] mergePairs(Axis a, Axis b) {
+        int[] pairs = new int[Math.min(a.getLength(), b.getLength()) * 2];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.getLength() && j < b.getLength()) {
+            long aTime = a.getTime(i);
+            long bTime = b.getTime(j);
+            if (i > 0 && aTime == a.getTime(i - 1)) {
+                i++;
+            } else if (j > 0 && bTime == b.getTime(j - 1)) {
+                j++;
+            } else if (aTime < bTime) {
+                i++;
+            } else if (bTime < aTime) {
+                j++;
+            } else {
+                pairs[n++] = i++;
+                pairs[n++] = j++;
             }
+        }
+        return Arrays.copyOf(pairs, n);
+    }
 
-            if (aIndex >= 0 && bIndex >= 0 && aTime == bTime) {
-                records.add(new Object[]{a.getValue(aIndex), b.getValue(bIndex), a.getDate(aIndex)});
-                aIndex--;
-                bIndex--;
-            } else if (aIndex <= 0 || bIndex <= 0) {
-                break;
+    private static int countRuns(int[] pairs) {
+        int runs = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i == 0 || pairs[i] != pairs[i - 2] + 1 || pairs[i + 1] != pairs[i - 1] + 1) {
+                runs++;
             }
         }
+        return runs;
+    }
 
-        BigDecimal[] aClean = new BigDecimal[records.size()];
-        BigDecimal[] bClean = new BigDecimal[records.size()];
-        Date[] dates = new Date[records.size()];
-        for (int i = 0; i < records.size(); i++) {
-            Object[] row = records.get(i);
-            aClean[i] = (BigDecimal)row[0];
-            bClean[i] = (BigDecimal)row[1];
-            dates[i] = (Date)row[2];
+    private static int[] encodeRuns(int[] pairs, int runs) {
+        int[] encoded = new int[runs * 3];
+        int run = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i == 0 || pairs[i] != pairs[i - 2] + 1 || pairs[i + 1] != pairs[i - 1] + 1) {
+                encoded[run * 3] = i / 2;
+                encoded[run * 3 + 1] = pairs[i];
+                encoded[run * 3 + 2] = pairs[i + 1];
+                run++;
+            }
         }
-        return new CleanedAxes(new SimpleAxis(a.getSymbol(), aClean, dates), new SimpleAxis(b.getSymbol(), bClean, dates));
+        return encoded;
     }
 }
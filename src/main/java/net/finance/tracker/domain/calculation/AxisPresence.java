@@ -0,0 +1,79 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.panel.TradingCalendar;
+
+import java.util.Arrays;
+
+/*
+The calendar rows an axis has values for, as one bit per row. Two axes share a date exactly where both bits are set, so
+a pair is aligned with a word-wise AND, and the position of a shared row within each axis is its rank - the number of
+set bits before it - which the per-word running counts make a single popcount. That only holds while every date appears
+once; an axis that repeats one reports hasDuplicates and has to be aligned some other way.
+ */
+class AxisPresence {
+    private final long[] words;
+    private final int[] ranks;
+    private final int firstWord;
+    private final int lastWord;
+    private final boolean duplicates;
+
+    AxisPresence(TradingCalendar calendar, Axis axis) {
+        this.words = new long[(calendar.size() + 63) >>> 6];
+        boolean repeated = false;
+        for (int i = 0; i < axis.getLength(); i++) {
+            int row = calendar.indexOf(axis.getTime(i));
+            repeated |= (words[row >>> 6] & 1L << row) != 0;
+            words[row >>> 6] |= 1L << row;
+        }
+        this.duplicates = repeated;
+        this.ranks = new int[words.length];
+        int rank = 0;
+        int first = words.length;
+        int last = -1;
+        for (int w = 0; w < words.length; w++) {
+            ranks[w] = rank;
+            rank += Long.bitCount(words[w]);
+            if (words[w] != 0) {
+                first = Math.min(first, w);
+                last = w;
+            }
+        }
+        this.firstWord = first;
+        this.lastWord = last;
+    }
+
+    boolean hasDuplicates() {
+        return duplicates;
+    }
+
+    int countShared(AxisPresence other) {
+        int shared = 0;
+        for (int w = Math.max(firstWord, other.firstWord), stop = Math.min(lastWord, other.lastWord); w <= stop; w++) {
+            shared += Long.bitCount(words[w] & other.words[w]);
+        }
+        return shared;
+    }
+
+    boolean hasSameRows(AxisPresence other) {
+        if (lastWord < 0 || other.lastWord < 0) {
+            return lastWord == other.lastWord;
+        }
+        return firstWord == other.firstWord && lastWord == other.lastWord
+                && Arrays.equals(words, firstWord, lastWord + 1, other.words, other.firstWord, other.lastWord + 1);
+    }
+
+    // Fills the positions of the shared rows in this axis and the other, interleaved, into pairs sized 2 * countShared.
+    void align(AxisPresence other, int[] pairs) {
+        int n = 0;
+        for (int w = Math.max(firstWord, other.firstWord), stop = Math.min(lastWord, other.lastWord); w <= stop; w++) {
+            long shared = words[w] & other.words[w];
+            while (shared != 0) {
+                long below = Long.lowestOneBit(shared) - 1;
+                pairs[n++] = ranks[w] + Long.bitCount(words[w] & below);
+                pairs[n++] = other.ranks[w] + Long.bitCount(other.words[w] & below);
+                shared &= shared - 1;
+            }
+        }
+    }
+}
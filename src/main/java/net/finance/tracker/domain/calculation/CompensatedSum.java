@@ -0,0 +1,24 @@
+package net.finance.tracker.domain.calculation;
+
+/*
+Neumaier's variant of Kahan summation - keeps the low order bits lost by each addition in a separate compensation
+term so long daily series can be summed in double precision without drifting away from the BigDecimal result.
+ */
+public class CompensatedSum {
+    private double sum;
+    private double compensation;
+
+    public void add(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    public double getSum() {
+        return sum + compensation;
+    }
+}
@@ -0,0 +1,42 @@
+package net.finance.tracker.domain.calculation;
+
+public class CorrelatedPair {
+    private final int xIndex;
+    private final int yIndex;
+    private final String symbolX;
+    private final String symbolY;
+    private final double correlation;
+
+    public CorrelatedPair(int xIndex, int yIndex, String symbolX, String symbolY, double correlation) {
+        this.xIndex = xIndex;
+        this.yIndex = yIndex;
+        this.symbolX = symbolX;
+        this.symbolY = symbolY;
+        this.correlation = correlation;
+    }
+
+    public int getXIndex() {
+        return xIndex;
+    }
+
+    public int getYIndex() {
+        return yIndex;
+    }
+
+    public String getSymbolX() {
+        return symbolX;
+    }
+
+    public String getSymbolY() {
+        return symbolY;
+    }
+
+    public double getCorrelation() {
+        return correlation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%1$s : %2$s %3$f", symbolX, symbolY, correlation);
+    }
+}
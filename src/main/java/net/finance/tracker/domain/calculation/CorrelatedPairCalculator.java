@@ -0,0 +1,72 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Answers "which pairs are most correlated" without building the n x n matrix. Pairs are calculated tile by tile with
+the fused kernel and streamed into a per-tile collector, so peak memory is bounded by what the collectors keep.
+ */
+public class CorrelatedPairCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int tileSize;
+
+    public CorrelatedPairCalculator(Listener<Exception> exceptionListener) {
+        this(exceptionListener, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public CorrelatedPairCalculator(Listener<Exception> exceptionListener, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.tileSize = tileSize;
+    }
+
+    public List<CorrelatedPair> calculate(List<Axis> axes, CorrelatedPairCollector collector, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                (xStart, xStop, yStart, yStop) -> new CollectingTile(axes, collector, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+        List<CorrelatedPair> pairs = collector.getPairs();
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Selected %1$d of %2$d pairs in %3$f/s", pairs.size(), axes.size() * (axes.size() - 1) / 2, (stopTime - startTime) / 1000.0));
+        return pairs;
+    }
+
+    static class CollectingTile extends CorrelationTile {
+        private final List<Axis> axes;
+        private final CorrelatedPairCollector collector;
+        private final Listener<Exception> exceptionListener;
+
+        CollectingTile(List<Axis> axes, CorrelatedPairCollector collector, Listener<Exception> exceptionListener, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.axes = axes;
+            this.collector = collector;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            CorrelatedPairCollector tileCollector = collector.newCollector();
+            PairMoments moments = new PairMoments();
+            for (int y = yStart; y < yStop; y++) {
+                for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                    Axis xAxis = axes.get(x);
+                    Axis yAxis = axes.get(y);
+                    moments.clear();
+                    try {
+                        double correlation = DoubleCorrelationMatrixCalculatorImpl.FusedCorrelationCalculator.accumulate(xAxis, yAxis, moments).getCorrelation();
+                        tileCollector.offer(x, y, xAxis.getSymbol(), yAxis.getSymbol(), correlation);
+                    } catch (CanNotCalculateException e) {
+                        exceptionListener.listen(e);
+                    }
+                }
+            }
+            synchronized (collector) {
+                collector.addAll(tileCollector);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.List;
+
+/*
+Receives pair results as they are calculated and keeps only the ones a query asks for. Each tile fills its own
+collector, which is then merged into the shared one, so no collector is ever touched by two threads at once.
+ */
+public interface CorrelatedPairCollector {
+    CorrelatedPairCollector newCollector();
+    void offer(int xIndex, int yIndex, String symbolX, String symbolY, double correlation);
+    void addAll(CorrelatedPairCollector other);
+    // Strongest first.
+    List<CorrelatedPair> getPairs();
+}
@@ -6,4 +6,26 @@ public interface CorrelationMatrix {
     int size();
     String getAxisLabel(int i);
     BigDecimal getCell(int i, int j);
+
+    // Primitive accessors - NaN wherever getCell would return null.
+    default double getCorrelation(int x, int y) {
+        BigDecimal cell = getCell(x, y);
+        return cell == null ? Double.NaN : cell.doubleValue();
+    }
+
+    default double[] getRow(int y) {
+        double[] row = new double[size()];
+        for (int x = 0; x < row.length; x++) {
+            row[x] = getCorrelation(x, y);
+        }
+        return row;
+    }
+
+    default double[] getColumn(int x) {
+        double[] column = new double[size()];
+        for (int y = 0; y < column.length; y++) {
+            column[y] = getCorrelation(x, y);
+        }
+        return column;
+    }
 }
@@ -12,11 +12,17 @@ public class CorrelationMatrixCalculatorImpl implements CorrelationMatrixCalcula
     private final Listener<Exception> exceptionListener;
     private final AxisCleaner axisCleaner;
     private final MathContext mathContext;
+    private final int tileSize;
 
     public CorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, AxisCleaner axisCleaner, MathContext mathContext) {
+        this(exceptionListener, axisCleaner, mathContext, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public CorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, AxisCleaner axisCleaner, MathContext mathContext, int tileSize) {
         this.exceptionListener = exceptionListener;
         this.axisCleaner = axisCleaner;
         this.mathContext = mathContext;
+        this.tileSize = tileSize;
     }
 
     @Override
@@ -58,71 +64,19 @@ public class CorrelationMatrixCalculatorImpl implements CorrelationMatrixCalcula
         return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
     }
 
-    private void populateCorrelationMatrix(BigDecimal[][] data, List<Axis> axes, ExecutorService service) throws Exception {
+    private void populateCorrelationMatrix(BigDecimal[][] data, List<Axis> axes, ExecutorService service) {
         long startTime = System.currentTimeMillis();
         int numberOfTasks = correlationsToCalculate(axes.size());
-
-        CountDownLatch latch = new CountDownLatch(numberOfTasks);
-        Set<String> missingSymbols = new TreeSet<>();
-        List<Future<CorrelationResult>> futures = new ArrayList<>(numberOfTasks);
-        System.out.println(String.format("Dispatching correlation calculation tasks, expecting %1$d", numberOfTasks));
-        long tasks = 0;
-        for (int y = 0; y < axes.size(); y++) {
-            for (int x = y + 1; x < axes.size(); x++) {
-                try {
-                    Axis xAxis = axes.get(x);
-                    Axis yAxis = axes.get(y);
-                    Callable<CorrelationResult> calc = new CorrelationMatrixCalculatorImpl.CorrelationCalculator(xAxis, yAxis, axisCleaner, mathContext, latch);
-                    futures.add(service.submit(calc));
-                    tasks++;
-                } catch (CanNotCalculateException e) {
-                    exceptionListener.listen(e);
-                }
-            }
-        }
-        System.out.println(String.format("Dispatched %1$d tasks of the expected %2$d", tasks, numberOfTasks));
-        System.out.flush();
-
-        for (String missing : missingSymbols) {
-            System.err.println(String.format("Could not find descriptive statistics for %1$s", missing));
-        }
-        System.err.flush();
-
-        try {
-            System.out.println(String.format("Main thread parked, awaiting %1$d calculation tasks", tasks));
-            latch.await();
-        } catch (InterruptedException ie) {
-            throw new RuntimeException("Calculation was interrupted", ie);
-        }
-
-        for (Future<CorrelationResult> calculatedResult : futures) {
-            CorrelationResult result;
-            try {
-                result = calculatedResult.get();
-                if (result == null) {
-                    System.out.println("Future returned a null result!");
-                }
-                int xIndex = getIndexOfAxisWithSymbolFromAxes(result.symbolX, axes);
-                int yIndex = getIndexOfAxisWithSymbolFromAxes(result.symbolY, axes);
-                data[yIndex][xIndex] = result.getResult();
-                data[xIndex][yIndex] = result.getResult();
-            } catch (InterruptedException | ExecutionException e) {
-                exceptionListener.listen(e);
-            }
-        }
+        axisCleaner.prepare(axes);
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        PairwiseCorrelationTile.PairCorrelator correlator = (xAxis, yAxis) -> new CorrelationCalculator(xAxis, yAxis, axisCleaner, mathContext).call().getResult();
+        List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                (xStart, xStop, yStart, yStop) -> new PairwiseCorrelationTile(axes, data, correlator, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
         long stopTime = System.currentTimeMillis();
         System.out.println(String.format("Calculated %1$d correlations in %2$f/s", numberOfTasks, (stopTime - startTime)/1000.0));
     }
 
-    private int getIndexOfAxisWithSymbolFromAxes(String symbol, List<Axis> axes) {
-        for (int i = 0; i < axes.size(); i++) {
-            if (symbol.equals(axes.get(i).getSymbol())) {
-                return i;
-            }
-        }
-        throw new IllegalArgumentException(String.format("Symbol %1$s could not be found in axes", symbol));
-    }
-
     static class CorrelationResult {
         private final BigDecimal result;
         private final String symbolX;
@@ -148,14 +102,12 @@ public class CorrelationMatrixCalculatorImpl implements CorrelationMatrixCalcula
     }
 
     static class CorrelationCalculator implements Callable<CorrelationResult> {
-        private final CountDownLatch latch;
         private final MathContext mathContext;
         private final AxisCleaner axisCleaner;
         private final Axis xAxis;
         private final Axis yAxis;
 
-        public CorrelationCalculator(Axis xAxis, Axis yAxis, AxisCleaner cleaner, MathContext mathContext, CountDownLatch latch) throws CanNotCalculateException {
-            this.latch = latch;
+        public CorrelationCalculator(Axis xAxis, Axis yAxis, AxisCleaner cleaner, MathContext mathContext) {
             this.mathContext = mathContext;
             this.axisCleaner = cleaner;
             this.xAxis = xAxis;
@@ -171,45 +123,20 @@ public class CorrelationMatrixCalculatorImpl implements CorrelationMatrixCalcula
             DescriptiveStatistics yStats = new DescriptiveStatistics.DescriptiveStatisticBuilder(cleaned.getBClean(), mathContext).call();
 
             if (xStats.getStandardDeviation().equals(new BigDecimal(0))) {
-                latch.countDown();
                 throw new CanNotCalculateException("Can not calculate correlation - standard deviation of the xAxis is zero");
             } else if (yStats.getStandardDeviation().equals(new BigDecimal(0))) {
-                latch.countDown();
                 throw new CanNotCalculateException("Can not calculate correlation - standard deviation of the yAxis is zero");
             }
 
             BigDecimal tally = new BigDecimal(0);
-            int points = 0;
-            try {
-                // We can only calculate correlation where we have a pair of values.
-                int maxIndex = Math.min(xAxis.getLength(), yAxis.getLength());
-                int xIndex = maxIndex-1;
-                int yIndex = maxIndex-1;
-
-                while (xIndex >= 0 && yIndex >= 0) {
-                    long xTime = xAxis.getDate(xIndex).getTime();
-                    long yTime = yAxis.getDate(yIndex).getTime();
-                    while (xTime < yTime && xIndex > 0) {
-                        yTime = yAxis.getDate(--yIndex).getTime();
-                    }
-                    while (yTime < xTime && yIndex > 0) {
-                        xTime = xAxis.getDate(--xIndex).getTime();
-                    }
-                    if (xTime == yTime && xIndex >= 0 && yIndex >= 0) {
-                        BigDecimal stdX = xStats.getMean().subtract(xAxis.getValue(xIndex)).divide(xStats.getStandardDeviation(), mathContext);
-                        BigDecimal stdY = xStats.getMean().subtract(yAxis.getValue(yIndex)).divide(xStats.getStandardDeviation(), mathContext);
-                        tally = tally.add(stdX.multiply(stdY));
-                        points++;
-                        System.out.println(String.format("\t\tCalculated %1$d of %2$d for %3$s : %4$s", points, maxIndex, xAxis.getSymbol(), yAxis.getSymbol()));
-                        xIndex--;
-                        yIndex--;
-                    } else {
-                        System.out.println(String.format("%1$s : %2$s xTime %3$d yTime %4$d xIndex %5$d yIndex %6$d", xAxis.getSymbol(), yAxis.getSymbol(), xTime, yTime, xIndex, yIndex));
-                    }
-                    System.out.flush();
-                }
-            } finally {
-                latch.countDown();
+            Axis xClean = cleaned.getAClean();
+            Axis yClean = cleaned.getBClean();
+            int points = xClean.getLength();
+            // The cleaned axes only hold the dates present on both axes, so values pair up by index.
+            for (int i = 0; i < points; i++) {
+                BigDecimal stdX = xStats.getMean().subtract(xClean.getValue(i)).divide(xStats.getStandardDeviation(), mathContext);
+                BigDecimal stdY = yStats.getMean().subtract(yClean.getValue(i)).divide(yStats.getStandardDeviation(), mathContext);
+                tally = tally.add(stdX.multiply(stdY));
             }
             System.out.println(String.format("\tCorrelated %1$s : %2$s", xAxis.getSymbol(), yAxis.getSymbol()));
             System.out.flush();
@@ -0,0 +1,110 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Handle on a matrix calculation started by AsyncCorrelationMatrixCalculatorImpl. Tiles still queued when the run is
+cancelled or passes its deadline are skipped, and the matrix then holds whatever tiles had finished.
+ */
+public class CorrelationRun {
+    private final PartialCorrelationMatrix matrix;
+    private final int totalTiles;
+    private final long totalPairs;
+    private final long startTime;
+    private final long deadline;
+    private final AtomicInteger completedTiles = new AtomicInteger();
+    private final AtomicLong completedPairs = new AtomicLong();
+    private final CountDownLatch finished;
+    private volatile boolean cancelled;
+
+    CorrelationRun(PartialCorrelationMatrix matrix, int totalTiles, long totalPairs, long startTime, long deadline) {
+        this.matrix = matrix;
+        this.totalTiles = totalTiles;
+        this.totalPairs = totalPairs;
+        this.startTime = startTime;
+        this.deadline = deadline;
+        this.finished = new CountDownLatch(totalTiles);
+    }
+
+    public PartialCorrelationMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int getTotalTiles() {
+        return totalTiles;
+    }
+
+    public int getCompletedTiles() {
+        return completedTiles.get();
+    }
+
+    public long getCompletedPairs() {
+        return completedPairs.get();
+    }
+
+    public double getPairsPerSecond() {
+        long elapsed = Math.max(1L, System.currentTimeMillis() - startTime);
+        return completedPairs.get() * 1000.0 / elapsed;
+    }
+
+    // Milliseconds left at the current rate, or -1 until the first tile has finished.
+    public long getEstimatedRemainingMillis() {
+        double pairsPerSecond = getPairsPerSecond();
+        if (pairsPerSecond <= 0.0) {
+            return -1L;
+        }
+        return (long)((totalPairs - completedPairs.get()) * 1000.0 / pairsPerSecond);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    public boolean isDone() {
+        return finished.getCount() == 0;
+    }
+
+    public boolean isComplete() {
+        return completedTiles.get() == totalTiles;
+    }
+
+    public PartialCorrelationMatrix await() throws InterruptedException {
+        finished.await();
+        return matrix;
+    }
+
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%1$d/%2$d tiles, %3$.0f pairs/s, ETA %4$dms%5$s", completedTiles.get(), totalTiles, getPairsPerSecond(),
+                getEstimatedRemainingMillis(), cancelled ? " (cancelled)" : isExpired() ? " (expired)" : "");
+    }
+
+    boolean shouldSkip() {
+        return cancelled || isExpired();
+    }
+
+    void tileCompleted(CorrelationTile tile) {
+        matrix.markComputed(tile);
+        completedPairs.addAndGet(tile.getPairCount());
+        completedTiles.incrementAndGet();
+    }
+
+    void tileFinished() {
+        finished.countDown();
+    }
+}
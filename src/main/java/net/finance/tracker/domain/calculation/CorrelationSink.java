@@ -0,0 +1,10 @@
+package net.finance.tracker.domain.calculation;
+
+/*
+Receives a calculated matrix as runs of one row of the upper triangle - the correlations of axis y against axes
+xStart to xStart + length - 1, all of which are greater than y. Pairs that could not be calculated are written as NaN.
+Tiles write disjoint runs concurrently, so implementations must tolerate that without further locking by the caller.
+ */
+public interface CorrelationSink {
+    void write(int y, int xStart, double[] correlations, int length);
+}
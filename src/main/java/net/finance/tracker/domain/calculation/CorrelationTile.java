@@ -0,0 +1,37 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.concurrent.RecursiveAction;
+
+/*
+A square block of the upper triangle of the matrix. Tiles on the diagonal only cover the pairs with x > y. Tiles of a
+rectangular (row axes by column axes) matrix cover every pair in their block and override getPairCount to say so.
+ */
+abstract class CorrelationTile extends RecursiveAction {
+    protected final int xStart;
+    protected final int xStop;
+    protected final int yStart;
+    protected final int yStop;
+
+    protected CorrelationTile(int xStart, int xStop, int yStart, int yStop) {
+        this.xStart = xStart;
+        this.xStop = xStop;
+        this.yStart = yStart;
+        this.yStop = yStop;
+    }
+
+    int getPairCount() {
+        return pairCount(xStart, xStop, yStart, yStop);
+    }
+
+    static int pairCount(int xStart, int xStop, int yStart, int yStop) {
+        int pairs = 0;
+        for (int y = yStart; y < yStop; y++) {
+            pairs += Math.max(0, xStop - Math.max(xStart, y + 1));
+        }
+        return pairs;
+    }
+
+    interface CorrelationTileFactory {
+        CorrelationTile create(int xStart, int xStop, int yStart, int yStop);
+    }
+}
@@ -0,0 +1,110 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+/*
+Splits the triangular pair space into square tiles so the number of scheduled tasks grows with (n / tileSize)^2
+rather than n^2, and each tile writes its results straight into the output by index.
+ */
+class CorrelationTileScheduler {
+    static final int DEFAULT_TILE_SIZE = 16;
+    private final int tileSize;
+    private final Listener<Exception> exceptionListener;
+
+    CorrelationTileScheduler(int tileSize, Listener<Exception> exceptionListener) {
+        this.tileSize = tileSize;
+        this.exceptionListener = exceptionListener;
+    }
+
+    List<CorrelationTile> split(int size, CorrelationTile.CorrelationTileFactory factory) {
+        List<CorrelationTile> tiles = new ArrayList<>();
+        for (TileBounds bounds : split(size)) {
+            tiles.add(factory.create(bounds.xStart, bounds.xStop, bounds.yStart, bounds.yStop));
+        }
+        return tiles;
+    }
+
+    // The same tiles as bounds alone, for callers that deal tiles out or journal them before deciding how to run them.
+    List<TileBounds> split(int size) {
+        List<TileBounds> bounds = new ArrayList<>();
+        for (int yStart = 0; yStart < size; yStart += tileSize) {
+            for (int xStart = yStart; xStart < size; xStart += tileSize) {
+                bounds.add(new TileBounds(xStart, Math.min(xStart + tileSize, size), yStart, Math.min(yStart + tileSize, size)));
+            }
+        }
+        return bounds;
+    }
+
+    // Every (row, column) pair of two separate sets of axes; y indexes the rows and x the columns.
+    List<CorrelationTile> splitRectangle(int rows, int columns, CorrelationTile.CorrelationTileFactory factory) {
+        List<CorrelationTile> tiles = new ArrayList<>();
+        for (int yStart = 0; yStart < rows; yStart += tileSize) {
+            for (int xStart = 0; xStart < columns; xStart += tileSize) {
+                tiles.add(factory.create(xStart, Math.min(xStart + tileSize, columns), yStart, Math.min(yStart + tileSize, rows)));
+            }
+        }
+        return tiles;
+    }
+
+    void invoke(List<CorrelationTile> tiles, ExecutorService service) {
+        System.out.println(String.format("Dispatching %1$d tiles of up to %2$dx%2$d correlations", tiles.size(), tileSize));
+        if (service instanceof ForkJoinPool) {
+            try {
+                ((ForkJoinPool)service).invoke(new TileGroup(tiles));
+            } catch (RuntimeException e) {
+                exceptionListener.listen(e);
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<>(tiles.size());
+            for (CorrelationTile tile : tiles) {
+                futures.add(service.submit(tile::invoke));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    exceptionListener.listen(e);
+                }
+            }
+        }
+    }
+
+    static class TileBounds {
+        final int xStart;
+        final int xStop;
+        final int yStart;
+        final int yStop;
+
+        TileBounds(int xStart, int xStop, int yStart, int yStop) {
+            this.xStart = xStart;
+            this.xStop = xStop;
+            this.yStart = yStart;
+            this.yStop = yStop;
+        }
+
+        int getPairCount() {
+            return CorrelationTile.pairCount(xStart, xStop, yStart, yStop);
+        }
+    }
+
+    private static class TileGroup extends RecursiveAction {
+        private final List<CorrelationTile> tiles;
+
+        TileGroup(List<CorrelationTile> tiles) {
+            this.tiles = tiles;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tiles);
+        }
+    }
+}
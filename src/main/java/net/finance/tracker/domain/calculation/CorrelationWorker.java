@@ -0,0 +1,113 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+Entry point of a worker process started by ShardedCorrelationMatrixCalculatorImpl. Reads one shard request from stdin,
+calculates its tiles with the fused double kernel and streams the rows back on stdout. Anything else the calculation
+prints is sent to stderr so it cannot corrupt the result stream.
+ */
+public class CorrelationWorker {
+    public static void main(String[] args) {
+        OutputStream results = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err);
+        int nThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        try {
+            run(System.in, results, nThreads);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    static void run(InputStream input, OutputStream output, int nThreads) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        ShardProtocol.checkHeader(in);
+        int size = in.readInt();
+        List<Axis> axes = Arrays.asList(new Axis[size]);
+        int axisCount = in.readInt();
+        for (int i = 0; i < axisCount; i++) {
+            int index = in.readInt();
+            axes.set(index, ShardProtocol.readAxis(in));
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        ResultStream results = new ResultStream(out);
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(CorrelationTileScheduler.DEFAULT_TILE_SIZE, results);
+        int tileCount = in.readInt();
+        List<CorrelationTile> tiles = new ArrayList<>(tileCount);
+        for (int i = 0; i < tileCount; i++) {
+            int xStart = in.readInt();
+            int xStop = in.readInt();
+            int yStart = in.readInt();
+            int yStop = in.readInt();
+            tiles.add(new DoubleCorrelationMatrixCalculatorImpl.FusedTile(axes, results, results, xStart, xStop, yStart, yStop));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, nThreads));
+        try {
+            scheduler.invoke(tiles, pool);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        results.done();
+    }
+
+    // Tiles write concurrently, so every record is written whole under the stream's lock.
+    private static class ResultStream implements CorrelationSink, Listener<Exception> {
+        private final DataOutputStream out;
+
+        private ResultStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void write(int y, int xStart, double[] correlations, int length) {
+            try {
+                out.writeByte(ShardProtocol.ROW);
+                out.writeInt(y);
+                out.writeInt(xStart);
+                out.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    out.writeDouble(correlations[i]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void listen(Exception item) {
+            try {
+                out.writeByte(item instanceof CanNotCalculateException ? ShardProtocol.MISSING : ShardProtocol.FAILURE);
+                out.writeUTF(String.valueOf(item.getMessage()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private synchronized void done() throws IOException {
+            out.writeByte(ShardProtocol.DONE);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.List;
+
+/*
+Symmetric covariance matrix - the per-axis statistics hold the diagonal, the off-diagonal covariances are packed once
+each like PackedCorrelationMatrix. When it was shrunk the values are the shrunk estimate, built on the sample matrix
+divided by n rather than n - 1, and getShrinkage is the weight given to the target.
+ */
+public class CovarianceMatrix {
+    private final List<DescriptiveStatistics> statistics;
+    private final double[] variances;
+    private final double[] covariances;
+    private final double shrinkage;
+
+    CovarianceMatrix(List<DescriptiveStatistics> statistics, double[] variances, double[] covariances, double shrinkage) {
+        this.statistics = statistics;
+        this.variances = variances;
+        this.covariances = covariances;
+        this.shrinkage = shrinkage;
+    }
+
+    public int size() {
+        return variances.length;
+    }
+
+    public String getAxisLabel(int i) {
+        return statistics.get(i).getSymbol();
+    }
+
+    // Sample mean and standard deviation of the axis, before any shrinkage.
+    public DescriptiveStatistics getStatistics(int i) {
+        return statistics.get(i);
+    }
+
+    public double getVariance(int i) {
+        return variances[i];
+    }
+
+    // NaN for a pair with fewer than two shared dates.
+    public double getCovariance(int x, int y) {
+        if (x == y) {
+            return variances[x];
+        }
+        return covariances[(int)PackedCorrelationMatrix.pairIndex(variances.length, Math.min(x, y), Math.max(x, y))];
+    }
+
+    public double getShrinkage() {
+        return shrinkage;
+    }
+}
@@ -0,0 +1,234 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernel;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernels;
+import net.finance.tracker.domain.panel.DensePanel;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/*
+Pairwise-complete sample covariances from the same masked moments as the panel correlation engine.
+
+With shrinkage the result is Ledoit and Wolf's (2004) combination of the sample matrix S with the target mu * I,
+mu being the average variance: (1 - k) * S + k * mu * I, where k = min(b2, d2) / d2, d2 is the squared distance of S
+from the target and b2 estimates the sampling error of S from the spread of the per-date products about each
+covariance. As in their derivation S divides by n rather than n - 1 when shrinking. The squared products are
+accumulated in the same pass over the panel as the moments. With missing dates each entry of S, and its error term,
+uses the pair's own shared dates and the means over those dates.
+ */
+public class CovarianceMatrixCalculator {
+    private static final int DEFAULT_COLUMN_BLOCK = 32;
+    private static final int DEFAULT_ROW_BLOCK = 1024;
+    private final Listener<Exception> exceptionListener;
+    private final boolean shrink;
+    private final int columnBlock;
+    private final int rowBlock;
+    private final DotProductKernel kernel;
+
+    public CovarianceMatrixCalculator(Listener<Exception> exceptionListener, boolean shrink) {
+        this(exceptionListener, shrink, DEFAULT_COLUMN_BLOCK, DEFAULT_ROW_BLOCK, DotProductKernels.getDefault());
+    }
+
+    public CovarianceMatrixCalculator(Listener<Exception> exceptionListener, boolean shrink, int columnBlock, int rowBlock, DotProductKernel kernel) {
+        this.exceptionListener = exceptionListener;
+        this.shrink = shrink;
+        this.columnBlock = columnBlock;
+        this.rowBlock = rowBlock;
+        this.kernel = kernel;
+    }
+
+    public CovarianceMatrix calculate(List<Axis> axes, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        DensePanel panel = new DensePanel.DensePanelBuilder(axes).build();
+        int size = panel.getColumnCount();
+
+        List<DescriptiveStatistics> statistics = new ArrayList<>(size);
+        double[] variances = new double[size];
+        ShrinkageTerms terms = new ShrinkageTerms();
+        for (int i = 0; i < size; i++) {
+            double[] column = panel.getCentredColumn(i);
+            int n = panel.getPresentCount(i);
+            DescriptiveStatistics statistic = new DescriptiveStatistics.DoubleDescriptiveStatisticBuilder(axes.get(i), column, panel.getMean(i), n, kernel).call();
+            statistics.add(statistic);
+            if (n < 2) {
+                variances[i] = Double.NaN;
+                continue;
+            }
+            double standardDeviation = statistic.getStandardDeviation().doubleValue();
+            variances[i] = standardDeviation * standardDeviation;
+            if (shrink) {
+                double squares = variances[i] * (n - 1);
+                double fourth = 0.0;
+                for (double value : column) {
+                    fourth += value * value * value * value;
+                }
+                variances[i] = squares / n;
+                terms.addVariance(variances[i], samplingError(n, squares, fourth));
+            }
+        }
+
+        double[] covariances = new double[(int)PackedCorrelationMatrix.pairCount(size)];
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(columnBlock, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(size,
+                (xStart, xStop, yStart, yStop) -> new CovarianceTile(panel, covariances, shrink ? terms : null, rowBlock, kernel, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+
+        double shrinkage = 0.0;
+        if (shrink) {
+            shrinkage = terms.getShrinkage();
+            double target = terms.getMeanVariance();
+            for (int i = 0; i < size; i++) {
+                variances[i] = shrinkage * target + (1.0 - shrinkage) * variances[i];
+            }
+            for (int i = 0; i < covariances.length; i++) {
+                covariances[i] *= 1.0 - shrinkage;
+            }
+        }
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated %1$dx%1$d covariance matrix with shrinkage %2$f in %3$f/s", size, shrinkage, (stopTime - startTime) / 1000.0));
+        return new CovarianceMatrix(statistics, variances, covariances, shrinkage);
+    }
+
+    // Estimated variance of one entry of S: the variance of the per-date centred products over the dates that formed it.
+    static double samplingError(double n, double products, double squaredProducts) {
+        double mean = products / n;
+        return (squaredProducts / n - mean * mean) / n;
+    }
+
+    /*
+    Sum over a pair's shared dates of ((x - a) * (y - b))^2, a and b being the pair's own means, expanded into sums the
+    tile can take over the column-centred values. Products involving both columns need no mask as missing values are zero.
+     */
+    static double squaredCoDeviations(double n, double xSum, double ySum, double xSquares, double ySquares, double products,
+                                      double squaredProducts, double xSquaredY, double xYSquared) {
+        double a = xSum / n;
+        double b = ySum / n;
+        return squaredProducts - 2.0 * b * xSquaredY - 2.0 * a * xYSquared + b * b * xSquares + a * a * ySquares
+                + 4.0 * a * b * products - 2.0 * a * b * b * xSum - 2.0 * a * a * b * ySum + n * a * a * b * b;
+    }
+
+    /*
+    Running totals over every entry of S, accumulated concurrently by the tiles. Off-diagonal entries count twice as the
+    matrix is symmetric.
+     */
+    static class ShrinkageTerms {
+        private final DoubleAdder varianceSum = new DoubleAdder();
+        private final DoubleAdder varianceSquares = new DoubleAdder();
+        private final DoubleAdder covarianceSquares = new DoubleAdder();
+        private final DoubleAdder samplingError = new DoubleAdder();
+        private int varianceCount;
+
+        void addVariance(double variance, double error) {
+            varianceSum.add(variance);
+            varianceSquares.add(variance * variance);
+            samplingError.add(error);
+            varianceCount++;
+        }
+
+        void addCovariance(double covariance, double error) {
+            covarianceSquares.add(2.0 * covariance * covariance);
+            samplingError.add(2.0 * error);
+        }
+
+        double getMeanVariance() {
+            return varianceCount == 0 ? 0.0 : varianceSum.sum() / varianceCount;
+        }
+
+        double getShrinkage() {
+            if (varianceCount == 0) {
+                return 0.0;
+            }
+            double mean = getMeanVariance();
+            // Sum of (s_ii - mu)^2 over the diagonal plus every off-diagonal s_ij^2.
+            double distance = varianceSquares.sum() - varianceCount * mean * mean + covarianceSquares.sum();
+            if (distance <= 0.0) {
+                return 0.0;
+            }
+            return Math.min(samplingError.sum(), distance) / distance;
+        }
+    }
+
+    static class CovarianceTile extends CorrelationTile {
+        private final DensePanel panel;
+        private final double[] covariances;
+        private final ShrinkageTerms terms;
+        private final int rowBlock;
+        private final DotProductKernel kernel;
+
+        CovarianceTile(DensePanel panel, double[] covariances, ShrinkageTerms terms, int rowBlock, DotProductKernel kernel, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.panel = panel;
+            this.covariances = covariances;
+            this.terms = terms;
+            this.rowBlock = rowBlock;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            int width = xStop - xStart;
+            int height = yStop - yStart;
+            double[] moments = new double[width * height * DotProductKernel.MOMENTS];
+            // Per cell: sums of (xy)^2, x^2 y and x y^2.
+            double[] squaredProducts = terms == null ? null : new double[width * height * 3];
+
+            for (int rowStart = 0; rowStart < panel.getRowCount(); rowStart += rowBlock) {
+                int rowStop = Math.min(rowStart + rowBlock, panel.getRowCount());
+                for (int y = yStart; y < yStop; y++) {
+                    double[] yValues = panel.getCentredColumn(y);
+                    double[] yMask = panel.getMask(y);
+                    for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                        int cell = (y - yStart) * width + (x - xStart);
+                        double[] xValues = panel.getCentredColumn(x);
+                        kernel.maskedMoments(xValues, panel.getMask(x), yValues, yMask, rowStart, rowStop, moments, cell * DotProductKernel.MOMENTS);
+                        if (squaredProducts != null) {
+                            // Missing values are stored as zero, so they drop out of the products without a mask.
+                            double squared = 0.0;
+                            double xSquaredY = 0.0;
+                            double xYSquared = 0.0;
+                            for (int row = rowStart; row < rowStop; row++) {
+                                double product = xValues[row] * yValues[row];
+                                squared += product * product;
+                                xSquaredY += product * xValues[row];
+                                xYSquared += product * yValues[row];
+                            }
+                            squaredProducts[cell * 3] += squared;
+                            squaredProducts[cell * 3 + 1] += xSquaredY;
+                            squaredProducts[cell * 3 + 2] += xYSquared;
+                        }
+                    }
+                }
+            }
+
+            int size = panel.getColumnCount();
+            for (int y = yStart; y < yStop; y++) {
+                for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                    int cell = (y - yStart) * width + (x - xStart);
+                    int offset = cell * DotProductKernel.MOMENTS;
+                    double n = moments[offset + DotProductKernel.COUNT];
+                    double covariance = Double.NaN;
+                    if (n >= 2) {
+                        double xSum = moments[offset + DotProductKernel.X_SUM];
+                        double ySum = moments[offset + DotProductKernel.Y_SUM];
+                        double products = moments[offset + DotProductKernel.PRODUCTS];
+                        double coMoment = products - xSum * ySum / n;
+                        if (terms == null) {
+                            covariance = coMoment / (n - 1);
+                        } else {
+                            covariance = coMoment / n;
+                            double squared = squaredCoDeviations(n, xSum, ySum, moments[offset + DotProductKernel.X_SQUARES], moments[offset + DotProductKernel.Y_SQUARES],
+                                    products, squaredProducts[cell * 3], squaredProducts[cell * 3 + 1], squaredProducts[cell * 3 + 2]);
+                            terms.addCovariance(covariance, samplingError(n, coMoment, squared));
+                        }
+                    }
+                    covariances[(int)PackedCorrelationMatrix.pairIndex(size, y, x)] = covariance;
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.finance.tracker.domain.calculation;
 
 import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernel;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -86,4 +87,47 @@ public class DescriptiveStatistics implements Axis {
             return new DescriptiveStatistics(axis, mean, stddev);
         }
     }
+
+    public static class DoubleDescriptiveStatisticBuilder implements Callable<DescriptiveStatistics> {
+        private final DotProductKernel kernel;
+        private final Axis axis;
+        private final double[] centred;
+        private final double mean;
+        private final int count;
+
+        public DoubleDescriptiveStatisticBuilder(Axis axis, DotProductKernel kernel) {
+            this(axis, null, 0.0, 0, kernel);
+        }
+
+        // A column already centred on its mean with missing dates stored as zero, as laid out by DensePanel.
+        public DoubleDescriptiveStatisticBuilder(Axis axis, double[] centred, double mean, int count, DotProductKernel kernel) {
+            this.axis = axis;
+            this.centred = centred;
+            this.mean = mean;
+            this.count = count;
+            this.kernel = kernel;
+        }
+
+        @Override
+        public DescriptiveStatistics call() {
+            double mean;
+            double squares;
+            int count;
+            if (centred == null) {
+                double[] values = new double[axis.getLength()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = axis.getDoubleValue(i);
+                }
+                count = values.length;
+                mean = kernel.sum(values, 0, count) / count;
+                squares = kernel.sumOfSquaredDeviations(values, mean, 0, count);
+            } else {
+                count = this.count;
+                mean = this.mean;
+                squares = kernel.sumOfSquaredDeviations(centred, 0.0, 0, centred.length);
+            }
+            BigDecimal stddev = count < 2 ? null : BigDecimal.valueOf(Math.sqrt(squares / (count - 1)));
+            return new DescriptiveStatistics(axis, BigDecimal.valueOf(mean), stddev);
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/*
+Primitive counterpart of CorrelationMatrixCalculatorImpl - each pair is aligned and reduced to its moments in a single
+pass over both axes, so the result stays within rounding noise of the DECIMAL64 calculation at a fraction of the cost.
+ */
+public class DoubleCorrelationMatrixCalculatorImpl implements StreamingCorrelationMatrixCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int tileSize;
+
+    public DoubleCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener) {
+        this(exceptionListener, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public DoubleCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        PackedCorrelationMatrix matrix = new PackedCorrelationMatrix(buildAxes(axes));
+        calculate(axes, matrix, service);
+        return matrix;
+    }
+
+    @Override
+    public void calculate(List<Axis> axes, CorrelationSink sink, ExecutorService service) {
+        try {
+            long startTime = System.currentTimeMillis();
+            int nCorrelations = correlationsToCalculate(axes.size());
+            System.out.println(String.format("Calculating %1$dx%1$d matrix using %2$d double precision correlations", axes.size(), nCorrelations));
+
+            populateCorrelationMatrix(sink, axes, service);
+            long stopTime = System.currentTimeMillis();
+            System.out.println(String.format("Calculated %1$d correlations in %2$f/s", nCorrelations, (stopTime - startTime) / 1000.0));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    private List<String> buildAxes(List<Axis> axes) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        return labels;
+    }
+
+    private void populateCorrelationMatrix(CorrelationSink sink, List<Axis> axes, ExecutorService service) {
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                (xStart, xStop, yStart, yStop) -> new FusedTile(axes, sink, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+    }
+
+    static class FusedTile extends CorrelationTile {
+        private final List<Axis> axes;
+        private final CorrelationSink sink;
+        private final Listener<Exception> exceptionListener;
+
+        FusedTile(List<Axis> axes, CorrelationSink sink, Listener<Exception> exceptionListener, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.axes = axes;
+            this.sink = sink;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            PairMoments moments = new PairMoments();
+            double[] row = new double[xStop - xStart];
+            for (int y = yStart; y < yStop; y++) {
+                int rowStart = Math.max(xStart, y + 1);
+                for (int x = rowStart; x < xStop; x++) {
+                    moments.clear();
+                    try {
+                        row[x - rowStart] = FusedCorrelationCalculator.accumulate(axes.get(x), axes.get(y), moments).getCorrelation();
+                    } catch (CanNotCalculateException e) {
+                        row[x - rowStart] = Double.NaN;
+                        exceptionListener.listen(e);
+                    }
+                }
+                if (rowStart < xStop) {
+                    sink.write(y, rowStart, row, xStop - rowStart);
+                }
+            }
+        }
+    }
+
+    static class FusedCorrelationCalculator implements Callable<CorrelationMatrixCalculatorImpl.CorrelationResult> {
+        private final Axis xAxis;
+        private final Axis yAxis;
+
+        public FusedCorrelationCalculator(Axis xAxis, Axis yAxis) {
+            this.xAxis = xAxis;
+            this.yAxis = yAxis;
+        }
+
+        @Override
+        public CorrelationMatrixCalculatorImpl.CorrelationResult call() throws Exception {
+            double correlation = accumulate(xAxis, yAxis, new PairMoments()).getCorrelation();
+            return new CorrelationMatrixCalculatorImpl.CorrelationResult(BigDecimal.valueOf(correlation), xAxis.getSymbol(), yAxis.getSymbol());
+        }
+
+        // Walks both (ascending) date axes once, feeding every shared date straight into the moments.
+        static PairMoments accumulate(Axis xAxis, Axis yAxis, PairMoments moments) {
+            int xLength = xAxis.getLength();
+            int yLength = yAxis.getLength();
+            if (xLength == 0 || yLength == 0) {
+                return moments;
+            }
+            int xIndex = 0;
+            int yIndex = 0;
+            long xTime = xAxis.getTime(xIndex);
+            long yTime = yAxis.getTime(yIndex);
+            while (true) {
+                if (xTime < yTime) {
+                    if (++xIndex == xLength) {
+                        break;
+                    }
+                    xTime = xAxis.getTime(xIndex);
+                } else if (yTime < xTime) {
+                    if (++yIndex == yLength) {
+                        break;
+                    }
+                    yTime = yAxis.getTime(yIndex);
+                } else {
+                    moments.add(xAxis.getDoubleValue(xIndex), yAxis.getDoubleValue(yIndex));
+                    if (++xIndex == xLength || ++yIndex == yLength) {
+                        break;
+                    }
+                    xTime = xAxis.getTime(xIndex);
+                    yTime = yAxis.getTime(yIndex);
+                }
+            }
+            return moments;
+        }
+    }
+}
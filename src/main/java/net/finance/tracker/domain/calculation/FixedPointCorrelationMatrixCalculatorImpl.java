@@ -0,0 +1,125 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.DecimalFixedPointAxis;
+import net.finance.tracker.domain.axis.FixedPointAxis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Exact counterpart of CorrelationMatrixCalculatorImpl. Each axis is held as unscaled longs at one power of ten, and the
+count, sums, sums of squares and sum of products of every pair are accumulated exactly in 128-bit integers. Rounding
+only enters the final (n.Sxy - Sx.Sy) / sqrt(variances), so a pair's correlation depends only on its data and never on
+how the work was split between threads. Correlation does not depend on scale, so axes with different scales need no
+rescaling.
+ */
+public class FixedPointCorrelationMatrixCalculatorImpl implements CorrelationMatrixCalculator {
+    private static final int GUARD_DIGITS = 10;
+    private final Listener<Exception> exceptionListener;
+    private final MathContext mathContext;
+    private final int tileSize;
+
+    public FixedPointCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, MathContext mathContext) {
+        this(exceptionListener, mathContext, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public FixedPointCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, MathContext mathContext, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.mathContext = mathContext;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        try {
+            long startTime = System.currentTimeMillis();
+            int nCorrelations = correlationsToCalculate(axes.size());
+            System.out.println(String.format("Calculating %1$dx%1$d matrix using %2$d fixed point correlations", axes.size(), nCorrelations));
+            List<Axis> fixedPointAxes = new ArrayList<>(axes.size());
+            List<String> labels = new ArrayList<>(axes.size());
+            for (Axis axis : axes) {
+                fixedPointAxes.add(DecimalFixedPointAxis.of(axis));
+                labels.add(axis.getSymbol());
+            }
+            BigDecimal[][] data = new BigDecimal[axes.size()][axes.size()];
+
+            CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+            PairwiseCorrelationTile.PairCorrelator correlator = (xAxis, yAxis) -> correlate((FixedPointAxis)xAxis, (FixedPointAxis)yAxis, mathContext);
+            List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                    (xStart, xStop, yStart, yStop) -> new PairwiseCorrelationTile(fixedPointAxes, data, correlator, exceptionListener, xStart, xStop, yStart, yStop));
+            scheduler.invoke(tiles, service);
+            long stopTime = System.currentTimeMillis();
+            System.out.println(String.format("Calculated %1$d correlations in %2$f/s", nCorrelations, (stopTime - startTime) / 1000.0));
+
+            return new CorrelationMatrixImpl(labels, data);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    static BigDecimal correlate(FixedPointAxis xAxis, FixedPointAxis yAxis, MathContext mathContext) throws CanNotCalculateException {
+        if (xAxis.getScale() < 0 || yAxis.getScale() < 0) {
+            throw new CanNotCalculateException(String.format("%1$s : %2$s - Can not calculate correlation - no exact fixed point form", xAxis.getSymbol(), yAxis.getSymbol()));
+        }
+        Int128 xSum = new Int128();
+        Int128 ySum = new Int128();
+        Int128 xSquares = new Int128();
+        Int128 ySquares = new Int128();
+        Int128 products = new Int128();
+        long n = 0;
+        int xIndex = 0;
+        int yIndex = 0;
+        try {
+            while (xIndex < xAxis.getLength() && yIndex < yAxis.getLength()) {
+                long xTime = xAxis.getTime(xIndex);
+                long yTime = yAxis.getTime(yIndex);
+                if (xTime < yTime) {
+                    xIndex++;
+                } else if (yTime < xTime) {
+                    yIndex++;
+                } else {
+                    long x = xAxis.getUnscaledValue(xIndex++);
+                    long y = yAxis.getUnscaledValue(yIndex++);
+                    xSum.add(x);
+                    ySum.add(y);
+                    xSquares.addProduct(x, x);
+                    ySquares.addProduct(y, y);
+                    products.addProduct(x, y);
+                    n++;
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new CanNotCalculateException(String.format("%1$s : %2$s - Can not calculate correlation - sums exceed 128 bits", xAxis.getSymbol(), yAxis.getSymbol()), e);
+        }
+        if (n < 2) {
+            throw new CanNotCalculateException(String.format("%1$s : %2$s - Can not calculate correlation - only %3$d shared dates", xAxis.getSymbol(), yAxis.getSymbol(), n));
+        }
+
+        BigInteger count = BigInteger.valueOf(n);
+        BigInteger x = xSum.toBigInteger();
+        BigInteger y = ySum.toBigInteger();
+        BigInteger xVariance = count.multiply(xSquares.toBigInteger()).subtract(x.multiply(x));
+        BigInteger yVariance = count.multiply(ySquares.toBigInteger()).subtract(y.multiply(y));
+        if (xVariance.signum() <= 0) {
+            throw new CanNotCalculateException(String.format("%1$s : %2$s - Can not calculate correlation - standard deviation of the xAxis is zero", xAxis.getSymbol(), yAxis.getSymbol()));
+        } else if (yVariance.signum() <= 0) {
+            throw new CanNotCalculateException(String.format("%1$s : %2$s - Can not calculate correlation - standard deviation of the yAxis is zero", xAxis.getSymbol(), yAxis.getSymbol()));
+        }
+        BigInteger covariance = count.multiply(products.toBigInteger()).subtract(x.multiply(y));
+        // Guard digits on the root keep the division the only rounding that shows at the caller's precision.
+        MathContext rootContext = new MathContext(mathContext.getPrecision() + GUARD_DIGITS, mathContext.getRoundingMode());
+        BigDecimal denominator = new BigDecimal(xVariance.multiply(yVariance)).sqrt(rootContext);
+        return new BigDecimal(covariance).divide(denominator, mathContext);
+    }
+}
@@ -0,0 +1,198 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.panel.TradingCalendar;
+import net.finance.tracker.util.pattern.Builder;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/*
+Keeps the running moments of every pair so a new daily bar costs O(n^2) arithmetic instead of a full recalculation.
+The bars themselves are retained so the oldest one can be removed again, which keeps a fixed length window current.
+A bar holds one value per axis, NaN where an axis has no value for that date.
+ */
+public class IncrementalCorrelationMatrix implements CorrelationMatrix {
+    private final String[] labels;
+    private final PairMoments[] moments;
+    private final Deque<Bar> bars = new ArrayDeque<>();
+    private final int windowLength;
+    private int removals;
+
+    private IncrementalCorrelationMatrix(String[] labels, int windowLength) {
+        this.labels = labels;
+        this.windowLength = windowLength;
+        this.moments = new PairMoments[(int)PackedCorrelationMatrix.pairCount(labels.length)];
+        for (int i = 0; i < moments.length; i++) {
+            moments[i] = new PairMoments();
+        }
+    }
+
+    @Override
+    public int size() {
+        return labels.length;
+    }
+
+    @Override
+    public String getAxisLabel(int i) {
+        return labels[i];
+    }
+
+    @Override
+    public BigDecimal getCell(int x, int y) {
+        if (x == y) {
+            return null;
+        }
+        try {
+            return BigDecimal.valueOf(getMoments(x, y).getCorrelation());
+        } catch (CanNotCalculateException e) {
+            return null;
+        }
+    }
+
+    public PairMoments getMoments(int x, int y) {
+        return moments[(int)PackedCorrelationMatrix.pairIndex(labels.length, Math.min(x, y), Math.max(x, y))];
+    }
+
+    public int getBarCount() {
+        return bars.size();
+    }
+
+    public Date getFirstDate() {
+        return bars.isEmpty() ? null : new Date(bars.peekFirst().time);
+    }
+
+    public Date getLastDate() {
+        return bars.isEmpty() ? null : new Date(bars.peekLast().time);
+    }
+
+    public void append(Date date, Map<String, BigDecimal> valuesBySymbol) {
+        double[] values = new double[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            BigDecimal value = valuesBySymbol.get(labels[i]);
+            values[i] = value == null ? Double.NaN : value.doubleValue();
+        }
+        append(date, values);
+    }
+
+    public void append(Date date, double[] values) {
+        if (values.length != labels.length) {
+            throw new IllegalArgumentException(String.format("Bar has %1$d values for %2$d axes", values.length, labels.length));
+        }
+        if (!bars.isEmpty() && date.getTime() <= bars.peekLast().time) {
+            throw new IllegalArgumentException(String.format("Bar for %1$s is not after the last bar %2$s", date, getLastDate()));
+        }
+        Bar bar = new Bar(date.getTime(), Arrays.copyOf(values, values.length));
+        bars.addLast(bar);
+        update(bar, true);
+        if (windowLength > 0 && bars.size() > windowLength) {
+            removeOldest();
+        }
+    }
+
+    public void removeOldest() {
+        Bar bar = bars.pollFirst();
+        if (bar != null) {
+            update(bar, false);
+            // Removing bars slowly accumulates rounding error in the moments, so they are rebuilt once per window of removals.
+            removals++;
+            if (removals >= (windowLength > 0 ? windowLength : bars.size())) {
+                recalculate();
+            }
+        }
+    }
+
+    public void recalculate() {
+        removals = 0;
+        for (PairMoments pair : moments) {
+            pair.clear();
+        }
+        for (Bar bar : bars) {
+            update(bar, true);
+        }
+    }
+
+    private void update(Bar bar, boolean add) {
+        double[] values = bar.values;
+        int index = 0;
+        for (int y = 0; y < values.length; y++) {
+            double yValue = values[y];
+            if (Double.isNaN(yValue)) {
+                index += values.length - y - 1;
+                continue;
+            }
+            for (int x = y + 1; x < values.length; x++, index++) {
+                double xValue = values[x];
+                if (!Double.isNaN(xValue)) {
+                    if (add) {
+                        moments[index].add(yValue, xValue);
+                    } else {
+                        moments[index].remove(yValue, xValue);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Bar {
+        private final long time;
+        private final double[] values;
+
+        private Bar(long time, double[] values) {
+            this.time = time;
+            this.values = values;
+        }
+    }
+
+    public static class IncrementalCorrelationMatrixBuilder implements Builder<IncrementalCorrelationMatrix> {
+        private final List<Axis> axes;
+        private final int windowLength;
+
+        public IncrementalCorrelationMatrixBuilder(List<Axis> axes) {
+            this(axes, 0);
+        }
+
+        // A window length of zero keeps every bar.
+        public IncrementalCorrelationMatrixBuilder(List<Axis> axes, int windowLength) {
+            this.axes = axes;
+            this.windowLength = windowLength;
+        }
+
+        @Override
+        public IncrementalCorrelationMatrix build() {
+            TradingCalendar.TradingCalendarBuilder calendarBuilder = new TradingCalendar.TradingCalendarBuilder();
+            String[] labels = new String[axes.size()];
+            for (int i = 0; i < axes.size(); i++) {
+                calendarBuilder.addAxis(axes.get(i));
+                labels[i] = axes.get(i).getSymbol();
+            }
+            TradingCalendar calendar = calendarBuilder.build();
+
+            int firstRow = windowLength > 0 ? Math.max(0, calendar.size() - windowLength) : 0;
+            double[][] rows = new double[calendar.size() - firstRow][axes.size()];
+            for (double[] row : rows) {
+                Arrays.fill(row, Double.NaN);
+            }
+            for (int column = 0; column < axes.size(); column++) {
+                Axis axis = axes.get(column);
+                for (int i = 0; i < axis.getLength(); i++) {
+                    int row = calendar.indexOf(axis.getTime(i)) - firstRow;
+                    if (row >= 0) {
+                        rows[row][column] = axis.getDoubleValue(i);
+                    }
+                }
+            }
+
+            IncrementalCorrelationMatrix matrix = new IncrementalCorrelationMatrix(labels, windowLength);
+            for (int row = 0; row < rows.length; row++) {
+                matrix.append(calendar.getDate(firstRow + row), rows[row]);
+            }
+            return matrix;
+        }
+    }
+}
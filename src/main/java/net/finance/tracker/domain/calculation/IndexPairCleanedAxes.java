@@ -0,0 +1,13 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.IndexedAxis;
+
+/*
+Cleaned axes held as one interleaved array of matched positions - a0, b0, a1, b1, ... - read through by both views.
+ */
+class IndexPairCleanedAxes extends CleanedAxes {
+    IndexPairCleanedAxes(Axis a, Axis b, int[] pairs) {
+        super(new IndexedAxis(a, pairs, 0, 2), new IndexedAxis(b, pairs, 1, 2));
+    }
+}
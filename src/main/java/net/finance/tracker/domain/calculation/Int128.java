@@ -0,0 +1,37 @@
+package net.finance.tracker.domain.calculation;
+
+import java.math.BigInteger;
+
+/*
+Mutable signed 128-bit integer for exact sums of longs and of their products. Products use Math.multiplyHigh for the
+top 64 bits; the low words are added unsigned and carried. Integer addition is associative, so the total never depends
+on the order the terms arrive in. Overflowing 128 bits throws ArithmeticException rather than wrapping.
+ */
+public class Int128 {
+    private long high;
+    private long low;
+
+    public void add(long value) {
+        add(value >> 63, value);
+    }
+
+    public void addProduct(long a, long b) {
+        add(Math.multiplyHigh(a, b), a * b);
+    }
+
+    public void clear() {
+        high = 0;
+        low = 0;
+    }
+
+    public BigInteger toBigInteger() {
+        return BigInteger.valueOf(high).shiftLeft(64).add(new BigInteger(Long.toUnsignedString(low)));
+    }
+
+    private void add(long addHigh, long addLow) {
+        long sum = low + addLow;
+        long carry = Long.compareUnsigned(sum, low) < 0 ? 1 : 0;
+        low = sum;
+        high = Math.addExact(Math.addExact(high, addHigh), carry);
+    }
+}
@@ -0,0 +1,178 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.kernel.Fft;
+import net.finance.tracker.domain.panel.DensePanel;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Finds the lag, within +/- maxLag trading days, at which each pair's correlation is strongest. Every lag is covered at
+once with the cross-correlation theorem: on the zero-filled panel columns, sum over t of a[t] * b[t + k] for all k is
+the inverse transform of conj(A) * B. Cross-correlating the values, masks and squared values gives the count, sums,
+sums of squares and sum of products of the dates both axes share at each lag, so missing dates are excluded exactly
+as in the panel calculator. Columns are padded to at least rows + maxLag so the circular transform never wraps.
+ */
+public class LeadLagCalculator {
+    private static final int DEFAULT_MAX_LAG = 60;
+    private static final int DEFAULT_MINIMUM_OVERLAP = 30;
+    private final Listener<Exception> exceptionListener;
+    private final int maxLag;
+    private final int minimumOverlap;
+    private final int tileSize;
+
+    public LeadLagCalculator(Listener<Exception> exceptionListener) {
+        this(exceptionListener, DEFAULT_MAX_LAG, DEFAULT_MINIMUM_OVERLAP, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    // Lags sharing fewer than minimumOverlap dates are ignored; short overlaps throw up spurious extreme correlations.
+    public LeadLagCalculator(Listener<Exception> exceptionListener, int maxLag, int minimumOverlap, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.maxLag = maxLag;
+        this.minimumOverlap = Math.max(2, minimumOverlap);
+        this.tileSize = tileSize;
+    }
+
+    public LeadLagMatrix calculate(List<Axis> axes, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        DensePanel panel = new DensePanel.DensePanelBuilder(axes).build();
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        LeadLagMatrix matrix = new LeadLagMatrix(labels, maxLag);
+        Fft fft = new Fft(Fft.sizeFor(panel.getRowCount() + maxLag));
+
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                (xStart, xStop, yStart, yStop) -> new LeadLagTile(panel, fft, maxLag, minimumOverlap, matrix, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated %1$d lead-lag profiles of %2$d lags using %3$d point transforms in %4$f/s",
+                PackedCorrelationMatrix.pairCount(axes.size()), 2 * maxLag + 1, fft.getSize(), (stopTime - startTime) / 1000.0));
+        return matrix;
+    }
+
+    // Transforms of one column's values, mask and squared values.
+    static class Spectrum {
+        final double[] valuesRe;
+        final double[] valuesIm;
+        final double[] maskRe;
+        final double[] maskIm;
+        final double[] squaresRe;
+        final double[] squaresIm;
+
+        Spectrum(DensePanel panel, int column, Fft fft) {
+            int size = fft.getSize();
+            double[] values = panel.getCentredColumn(column);
+            double[] mask = panel.getMask(column);
+            valuesRe = new double[size];
+            valuesIm = new double[size];
+            maskRe = new double[size];
+            maskIm = new double[size];
+            squaresRe = new double[size];
+            squaresIm = new double[size];
+            for (int row = 0; row < values.length; row++) {
+                valuesRe[row] = values[row];
+                maskRe[row] = mask[row];
+                squaresRe[row] = values[row] * values[row];
+            }
+            fft.transform(valuesRe, valuesIm, false);
+            fft.transform(maskRe, maskIm, false);
+            fft.transform(squaresRe, squaresIm, false);
+        }
+    }
+
+    static class LeadLagTile extends CorrelationTile {
+        private final DensePanel panel;
+        private final Fft fft;
+        private final int maxLag;
+        private final int minimumOverlap;
+        private final LeadLagMatrix matrix;
+        private final Listener<Exception> exceptionListener;
+
+        LeadLagTile(DensePanel panel, Fft fft, int maxLag, int minimumOverlap, LeadLagMatrix matrix, Listener<Exception> exceptionListener,
+                    int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.panel = panel;
+            this.fft = fft;
+            this.maxLag = maxLag;
+            this.minimumOverlap = minimumOverlap;
+            this.matrix = matrix;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            // Each column's spectrum is computed once per tile and shared by all of its pairs in the tile.
+            int first = Math.min(xStart, yStart);
+            Spectrum[] spectra = new Spectrum[Math.max(xStop, yStop) - first];
+            int size = fft.getSize();
+            double[] sumsRe = new double[size];
+            double[] sumsIm = new double[size];
+            double[] squaresRe = new double[size];
+            double[] squaresIm = new double[size];
+            double[] productsRe = new double[size];
+            double[] productsIm = new double[size];
+
+            for (int y = yStart; y < yStop; y++) {
+                for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                    Spectrum a = spectrum(spectra, first, y);
+                    Spectrum b = spectrum(spectra, first, x);
+                    // Two real cross-correlations per inverse transform: one in the real part, one in the imaginary.
+                    crossCorrelate(a.valuesRe, a.valuesIm, b.maskRe, b.maskIm, a.maskRe, a.maskIm, b.valuesRe, b.valuesIm, sumsRe, sumsIm);
+                    crossCorrelate(a.squaresRe, a.squaresIm, b.maskRe, b.maskIm, a.maskRe, a.maskIm, b.squaresRe, b.squaresIm, squaresRe, squaresIm);
+                    crossCorrelate(a.valuesRe, a.valuesIm, b.valuesRe, b.valuesIm, a.maskRe, a.maskIm, b.maskRe, b.maskIm, productsRe, productsIm);
+
+                    int bestLag = 0;
+                    double best = Double.NaN;
+                    for (int lag = -maxLag; lag <= maxLag; lag++) {
+                        int k = lag < 0 ? size + lag : lag;
+                        double n = Math.rint(productsIm[k]);
+                        if (n < minimumOverlap) {
+                            continue;
+                        }
+                        try {
+                            double correlation = PanelCorrelationMatrixCalculatorImpl.PanelTile.correlation(n, sumsRe[k], sumsIm[k], squaresRe[k], squaresIm[k], productsRe[k]);
+                            if (Double.isNaN(best) || Math.abs(correlation) > Math.abs(best)) {
+                                best = correlation;
+                                bestLag = lag;
+                            }
+                        } catch (CanNotCalculateException e) {
+                            // A lag where either side is constant over the overlap has no correlation to compare.
+                        }
+                    }
+                    if (Double.isNaN(best)) {
+                        exceptionListener.listen(new CanNotCalculateException(String.format("%1$s : %2$s - no lag within %3$d days shares %4$d dates",
+                                panel.getLabel(y), panel.getLabel(x), maxLag, minimumOverlap)));
+                    }
+                    matrix.set(y, x, bestLag, best);
+                }
+            }
+        }
+
+        private Spectrum spectrum(Spectrum[] spectra, int first, int column) {
+            if (spectra[column - first] == null) {
+                spectra[column - first] = new Spectrum(panel, column, fft);
+            }
+            return spectra[column - first];
+        }
+
+        // Real part receives the cross-correlation of a with b, imaginary part that of c with d.
+        private void crossCorrelate(double[] aRe, double[] aIm, double[] bRe, double[] bIm, double[] cRe, double[] cIm, double[] dRe, double[] dIm,
+                                    double[] re, double[] im) {
+            for (int i = 0; i < re.length; i++) {
+                double abRe = aRe[i] * bRe[i] + aIm[i] * bIm[i];
+                double abIm = aRe[i] * bIm[i] - aIm[i] * bRe[i];
+                double cdRe = cRe[i] * dRe[i] + cIm[i] * dIm[i];
+                double cdIm = cRe[i] * dIm[i] - cIm[i] * dRe[i];
+                re[i] = abRe - cdIm;
+                im[i] = abIm + cdRe;
+            }
+            fft.transform(re, im, true);
+        }
+    }
+}
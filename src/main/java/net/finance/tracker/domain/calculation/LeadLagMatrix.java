@@ -0,0 +1,58 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.List;
+
+/*
+Companion to CorrelationMatrix holding, for every pair, the lag at which their cross-correlation is strongest and that
+correlation. A lag of k means x leads y by k trading days: corr(x[t], y[t + k]) is the peak. Swapping the axes negates
+the lag. Pairs without enough overlap at any lag have a NaN correlation.
+ */
+public class LeadLagMatrix {
+    private final List<String> symbols;
+    private final int maxLag;
+    private final int[] lags;
+    private final double[] correlations;
+
+    LeadLagMatrix(List<String> symbols, int maxLag) {
+        this.symbols = symbols;
+        this.maxLag = maxLag;
+        int pairs = (int)PackedCorrelationMatrix.pairCount(symbols.size());
+        this.lags = new int[pairs];
+        this.correlations = new double[pairs];
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    public String getAxisLabel(int i) {
+        return symbols.get(i);
+    }
+
+    public int getMaxLag() {
+        return maxLag;
+    }
+
+    public int getLag(int x, int y) {
+        if (x == y) {
+            return 0;
+        }
+        int lag = lags[index(x, y)];
+        return x < y ? lag : -lag;
+    }
+
+    public double getCorrelation(int x, int y) {
+        return x == y ? Double.NaN : correlations[index(x, y)];
+    }
+
+    // Stored with the lower index as x.
+    void set(int x, int y, int lag, double correlation) {
+        int index = index(x, y);
+        lags[index] = x < y ? lag : -lag;
+        correlations[index] = correlation;
+    }
+
+    private int index(int x, int y) {
+        return (int)PackedCorrelationMatrix.pairIndex(symbols.size(), Math.min(x, y), Math.max(x, y));
+    }
+}
@@ -0,0 +1,141 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesField;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/*
+Correlates several fields of the same series in one run. Every requested field is converted to doubles once per series,
+then each pair's dates are merged a single time and every shared date feeds the moments of all fields together, so
+the alignment - the expensive part of a pairwise run - is shared instead of repeated per field.
+ */
+public class MultiFieldCorrelationCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int tileSize;
+
+    public MultiFieldCorrelationCalculator(Listener<Exception> exceptionListener) {
+        this(exceptionListener, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public MultiFieldCorrelationCalculator(Listener<Exception> exceptionListener, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.tileSize = tileSize;
+    }
+
+    public Map<SeriesField, CorrelationMatrix> calculate(List<Series> series, Set<SeriesField> fields, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        SeriesField[] fieldOrder = fields.toArray(new SeriesField[0]);
+        List<String> labels = new ArrayList<>(series.size());
+        FieldColumns[] columns = new FieldColumns[series.size()];
+        for (int i = 0; i < series.size(); i++) {
+            labels.add(series.get(i).getSymbol());
+            columns[i] = new FieldColumns(series.get(i), fieldOrder);
+        }
+        PackedCorrelationMatrix[] matrices = new PackedCorrelationMatrix[fieldOrder.length];
+        for (int f = 0; f < fieldOrder.length; f++) {
+            matrices[f] = new PackedCorrelationMatrix(labels);
+        }
+
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(series.size(),
+                (xStart, xStop, yStart, yStop) -> new MultiFieldTile(columns, matrices, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+
+        Map<SeriesField, CorrelationMatrix> result = new EnumMap<>(SeriesField.class);
+        for (int f = 0; f < fieldOrder.length; f++) {
+            result.put(fieldOrder[f], matrices[f]);
+        }
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated %1$d correlations for each of %2$s in %3$f/s",
+                PackedCorrelationMatrix.pairCount(series.size()), fields, (stopTime - startTime) / 1000.0));
+        return result;
+    }
+
+    static class FieldColumns {
+        private final String symbol;
+        private final long[] times;
+        // values[field][i]
+        private final double[][] values;
+
+        FieldColumns(Series series, SeriesField[] fields) {
+            this.symbol = series.getSymbol();
+            this.times = series.getTimes();
+            this.values = new double[fields.length][];
+            for (int f = 0; f < fields.length; f++) {
+                values[f] = series.getValues(fields[f]);
+            }
+        }
+    }
+
+    static class MultiFieldTile extends CorrelationTile {
+        private final FieldColumns[] columns;
+        private final PackedCorrelationMatrix[] matrices;
+        private final Listener<Exception> exceptionListener;
+
+        MultiFieldTile(FieldColumns[] columns, PackedCorrelationMatrix[] matrices, Listener<Exception> exceptionListener, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.columns = columns;
+            this.matrices = matrices;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            int nFields = matrices.length;
+            PairMoments[] moments = new PairMoments[nFields];
+            for (int f = 0; f < nFields; f++) {
+                moments[f] = new PairMoments();
+            }
+            double[][] rows = new double[nFields][xStop - xStart];
+            for (int y = yStart; y < yStop; y++) {
+                int rowStart = Math.max(xStart, y + 1);
+                for (int x = rowStart; x < xStop; x++) {
+                    accumulate(columns[x], columns[y], moments);
+                    for (int f = 0; f < nFields; f++) {
+                        try {
+                            rows[f][x - rowStart] = moments[f].getCorrelation();
+                        } catch (CanNotCalculateException e) {
+                            rows[f][x - rowStart] = Double.NaN;
+                            exceptionListener.listen(new CanNotCalculateException(String.format("%1$s : %2$s - %3$s", columns[x].symbol, columns[y].symbol, e.getMessage()), e));
+                        }
+                    }
+                }
+                if (rowStart < xStop) {
+                    for (int f = 0; f < nFields; f++) {
+                        matrices[f].write(y, rowStart, rows[f], xStop - rowStart);
+                    }
+                }
+            }
+        }
+
+        private static void accumulate(FieldColumns x, FieldColumns y, PairMoments[] moments) {
+            for (PairMoments fieldMoments : moments) {
+                fieldMoments.clear();
+            }
+            int xIndex = 0;
+            int yIndex = 0;
+            while (xIndex < x.times.length && yIndex < y.times.length) {
+                long xTime = x.times[xIndex];
+                long yTime = y.times[yIndex];
+                if (xTime < yTime) {
+                    xIndex++;
+                } else if (yTime < xTime) {
+                    yIndex++;
+                } else {
+                    for (int f = 0; f < moments.length; f++) {
+                        moments[f].add(x.values[f][xIndex], y.values[f][yIndex]);
+                    }
+                    xIndex++;
+                    yIndex++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.finance.tracker.domain.calculation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Stores each correlation once, as a double in a row major upper triangle without the diagonal - n(n-1)/2 values instead
+of n^2 BigDecimals. Cells that could not be calculated hold NaN and read back as null through getCell.
+ */
+public class PackedCorrelationMatrix implements CorrelationMatrix, CorrelationSink {
+    private final List<String> symbols;
+    private final double[] data;
+
+    public PackedCorrelationMatrix(List<String> symbols) {
+        this.symbols = symbols;
+        long cells = pairCount(symbols.size());
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format("%1$d axes need %2$d cells, too many for one array", symbols.size(), cells));
+        }
+        this.data = new double[(int)cells];
+        Arrays.fill(data, Double.NaN);
+    }
+
+    @Override
+    public int size() {
+        return symbols.size();
+    }
+
+    @Override
+    public String getAxisLabel(int i) {
+        return symbols.get(i);
+    }
+
+    @Override
+    public BigDecimal getCell(int x, int y) {
+        double correlation = getCorrelation(x, y);
+        return Double.isNaN(correlation) ? null : BigDecimal.valueOf(correlation);
+    }
+
+    @Override
+    public double getCorrelation(int x, int y) {
+        if (x == y) {
+            return Double.NaN;
+        }
+        return data[(int)pairIndex(symbols.size(), Math.min(x, y), Math.max(x, y))];
+    }
+
+    @Override
+    public double[] getRow(int y) {
+        int size = symbols.size();
+        double[] row = new double[size];
+        // Left of the diagonal the row is a strided walk down the triangle, right of it a contiguous run.
+        for (int x = 0; x < y; x++) {
+            row[x] = data[(int)pairIndex(size, x, y)];
+        }
+        row[y] = Double.NaN;
+        if (y + 1 < size) {
+            System.arraycopy(data, (int)pairIndex(size, y, y + 1), row, y + 1, size - y - 1);
+        }
+        return row;
+    }
+
+    @Override
+    public double[] getColumn(int x) {
+        return getRow(x);
+    }
+
+    @Override
+    public void write(int y, int xStart, double[] correlations, int length) {
+        System.arraycopy(correlations, 0, data, (int)pairIndex(symbols.size(), y, xStart), length);
+    }
+
+    void set(int x, int y, double correlation) {
+        data[(int)pairIndex(symbols.size(), Math.min(x, y), Math.max(x, y))] = correlation;
+    }
+
+    public static long pairCount(int size) {
+        return (long)size * (size - 1) / 2;
+    }
+
+    // Position of the pair (x < y) in a row major upper triangle that excludes the diagonal.
+    public static long pairIndex(int size, int x, int y) {
+        return (long)x * (2L * size - x - 1) / 2 + (y - x - 1);
+    }
+}
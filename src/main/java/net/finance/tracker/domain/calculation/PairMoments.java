@@ -0,0 +1,92 @@
+package net.finance.tracker.domain.calculation;
+
+/*
+Running moments of a pair of series using Welford's updates - one pass, no stored values, and no catastrophic
+cancellation from subtracting large raw sums.
+ */
+public class PairMoments {
+    // A sum of squared deviations this small against the raw sum of squares is rounding error, not variance.
+    private static final double FLAT_TOLERANCE = 1e-12;
+    private int n;
+    private double xMean;
+    private double yMean;
+    private double xSquares;
+    private double ySquares;
+    private double coMoment;
+
+    public void add(double x, double y) {
+        n++;
+        double xDelta = x - xMean;
+        double yDelta = y - yMean;
+        xMean += xDelta / n;
+        yMean += yDelta / n;
+        xSquares += xDelta * (x - xMean);
+        ySquares += yDelta * (y - yMean);
+        coMoment += xDelta * (y - yMean);
+    }
+
+    // Algebraic inverse of add, so a pair can slide a window forward without revisiting the values it still holds.
+    public void remove(double x, double y) {
+        if (n <= 1) {
+            clear();
+            return;
+        }
+        n--;
+        double xDelta = x - xMean;
+        double yDelta = y - yMean;
+        xMean -= xDelta / n;
+        yMean -= yDelta / n;
+        xSquares -= xDelta * (x - xMean);
+        ySquares -= yDelta * (y - yMean);
+        coMoment -= xDelta * (y - yMean);
+    }
+
+    public void clear() {
+        n = 0;
+        xMean = 0.0;
+        yMean = 0.0;
+        xSquares = 0.0;
+        ySquares = 0.0;
+        coMoment = 0.0;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public double getXMean() {
+        return xMean;
+    }
+
+    public double getYMean() {
+        return yMean;
+    }
+
+    public double getXSquares() {
+        return xSquares;
+    }
+
+    public double getYSquares() {
+        return ySquares;
+    }
+
+    public double getCoMoment() {
+        return coMoment;
+    }
+
+    public double getCorrelation() throws CanNotCalculateException {
+        if (n < 2) {
+            throw new CanNotCalculateException(String.format("Can not calculate correlation - only %1$d shared dates", n));
+        } else if (isFlat(xSquares, xSquares + n * xMean * xMean)) {
+            throw new CanNotCalculateException("Can not calculate correlation - standard deviation of the xAxis is zero");
+        } else if (isFlat(ySquares, ySquares + n * yMean * yMean)) {
+            throw new CanNotCalculateException("Can not calculate correlation - standard deviation of the yAxis is zero");
+        }
+        return coMoment / Math.sqrt(xSquares * ySquares);
+    }
+
+    // Deviations is the sum of squared deviations from the mean, rawSquares the plain sum of squares of the same values.
+    static boolean isFlat(double deviations, double rawSquares) {
+        return deviations <= 0.0 || deviations <= FLAT_TOLERANCE * rawSquares;
+    }
+}
@@ -0,0 +1,42 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class PairwiseCorrelationTile extends CorrelationTile {
+    private final List<Axis> axes;
+    private final BigDecimal[][] data;
+    private final PairCorrelator correlator;
+    private final Listener<Exception> exceptionListener;
+
+    PairwiseCorrelationTile(List<Axis> axes, BigDecimal[][] data, PairCorrelator correlator, Listener<Exception> exceptionListener,
+                            int xStart, int xStop, int yStart, int yStop) {
+        super(xStart, xStop, yStart, yStop);
+        this.axes = axes;
+        this.data = data;
+        this.correlator = correlator;
+        this.exceptionListener = exceptionListener;
+    }
+
+    @Override
+    protected void compute() {
+        for (int y = yStart; y < yStop; y++) {
+            for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                try {
+                    BigDecimal result = correlator.correlate(axes.get(x), axes.get(y));
+                    data[y][x] = result;
+                    data[x][y] = result;
+                } catch (Exception e) {
+                    exceptionListener.listen(e);
+                }
+            }
+        }
+    }
+
+    interface PairCorrelator {
+        BigDecimal correlate(Axis xAxis, Axis yAxis) throws Exception;
+    }
+}
@@ -0,0 +1,155 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernel;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernels;
+import net.finance.tracker.domain.panel.DensePanel;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Aligns every axis once onto a shared calendar and computes the whole matrix as a blocked X'X style product. For each
+pair the pairwise-complete count, sums, sums of squares and sum of products are accumulated together, so dates missing
+from either axis are excluded exactly as they are by the pairwise calculators.
+ */
+public class PanelCorrelationMatrixCalculatorImpl implements StreamingCorrelationMatrixCalculator {
+    private static final int DEFAULT_COLUMN_BLOCK = 32;
+    private static final int DEFAULT_ROW_BLOCK = 1024;
+    private final Listener<Exception> exceptionListener;
+    private final int columnBlock;
+    private final int rowBlock;
+    private final DotProductKernel kernel;
+
+    public PanelCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener) {
+        this(exceptionListener, DEFAULT_COLUMN_BLOCK, DEFAULT_ROW_BLOCK, DotProductKernels.getDefault());
+    }
+
+    public PanelCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, int columnBlock, int rowBlock, DotProductKernel kernel) {
+        this.exceptionListener = exceptionListener;
+        this.columnBlock = columnBlock;
+        this.rowBlock = rowBlock;
+        this.kernel = kernel;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        PackedCorrelationMatrix matrix = new PackedCorrelationMatrix(buildAxes(axes));
+        calculate(axes, matrix, service);
+        return matrix;
+    }
+
+    @Override
+    public void calculate(List<Axis> axes, CorrelationSink sink, ExecutorService service) {
+        try {
+            long startTime = System.currentTimeMillis();
+            DensePanel panel = new DensePanel.DensePanelBuilder(axes).build();
+            long alignedTime = System.currentTimeMillis();
+            System.out.println(String.format("Aligned %1$d axes onto %2$d dates in %3$f/s", panel.getColumnCount(), panel.getRowCount(), (alignedTime - startTime) / 1000.0));
+
+            populateCorrelationMatrix(sink, panel, service);
+            long stopTime = System.currentTimeMillis();
+            System.out.println(String.format("Calculated %1$d correlations in %2$f/s", correlationsToCalculate(axes.size()), (stopTime - alignedTime) / 1000.0));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    private List<String> buildAxes(List<Axis> axes) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        return labels;
+    }
+
+    private void populateCorrelationMatrix(CorrelationSink sink, DensePanel panel, ExecutorService service) {
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(columnBlock, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(panel.getColumnCount(),
+                (xStart, xStop, yStart, yStop) -> new PanelTile(panel, sink, rowBlock, kernel, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+    }
+
+    static class PanelTile extends CorrelationTile {
+        private final DensePanel panel;
+        private final CorrelationSink sink;
+        private final int rowBlock;
+        private final DotProductKernel kernel;
+        private final Listener<Exception> exceptionListener;
+
+        PanelTile(DensePanel panel, CorrelationSink sink, int rowBlock, DotProductKernel kernel, Listener<Exception> exceptionListener, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.panel = panel;
+            this.sink = sink;
+            this.rowBlock = rowBlock;
+            this.kernel = kernel;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            int width = xStop - xStart;
+            int height = yStop - yStart;
+            double[] moments = new double[width * height * DotProductKernel.MOMENTS];
+
+            // Row blocks keep the slices of the tile's columns in cache while every pair in the tile consumes them.
+            for (int rowStart = 0; rowStart < panel.getRowCount(); rowStart += rowBlock) {
+                int rowStop = Math.min(rowStart + rowBlock, panel.getRowCount());
+                for (int y = yStart; y < yStop; y++) {
+                    double[] yValues = panel.getCentredColumn(y);
+                    double[] yMask = panel.getMask(y);
+                    for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                        int offset = ((y - yStart) * width + (x - xStart)) * DotProductKernel.MOMENTS;
+                        kernel.maskedMoments(panel.getCentredColumn(x), panel.getMask(x), yValues, yMask, rowStart, rowStop, moments, offset);
+                    }
+                }
+            }
+
+            double[] row = new double[width];
+            for (int y = yStart; y < yStop; y++) {
+                int rowStart = Math.max(xStart, y + 1);
+                for (int x = rowStart; x < xStop; x++) {
+                    int offset = ((y - yStart) * width + (x - xStart)) * DotProductKernel.MOMENTS;
+                    try {
+                        row[x - rowStart] = correlation(
+                                moments[offset + DotProductKernel.COUNT],
+                                moments[offset + DotProductKernel.X_SUM],
+                                moments[offset + DotProductKernel.Y_SUM],
+                                moments[offset + DotProductKernel.X_SQUARES],
+                                moments[offset + DotProductKernel.Y_SQUARES],
+                                moments[offset + DotProductKernel.PRODUCTS]);
+                    } catch (CanNotCalculateException e) {
+                        row[x - rowStart] = Double.NaN;
+                        exceptionListener.listen(new CanNotCalculateException(String.format("%1$s : %2$s - %3$s", panel.getLabel(x), panel.getLabel(y), e.getMessage()), e));
+                    }
+                }
+                if (rowStart < xStop) {
+                    sink.write(y, rowStart, row, xStop - rowStart);
+                }
+            }
+        }
+
+        static double correlation(double n, double xSum, double ySum, double xSquares, double ySquares, double products) throws CanNotCalculateException {
+            if (n < 2) {
+                throw new CanNotCalculateException(String.format("Can not calculate correlation - only %1$d shared dates", (int)n));
+            }
+            double xVariance = xSquares - xSum * xSum / n;
+            double yVariance = ySquares - ySum * ySum / n;
+            // Columns are centred on their full mean, so a pair's overlap can be flat yet leave rounding noise here.
+            if (PairMoments.isFlat(xVariance, xSquares)) {
+                throw new CanNotCalculateException("Can not calculate correlation - standard deviation of the xAxis is zero");
+            } else if (PairMoments.isFlat(yVariance, ySquares)) {
+                throw new CanNotCalculateException("Can not calculate correlation - standard deviation of the yAxis is zero");
+            }
+            double covariance = products - xSum * ySum / n;
+            return covariance / Math.sqrt(xVariance * yVariance);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.finance.tracker.domain.calculation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+The matrix of a CorrelationRun that may have been cancelled or run out of time. Cells of tiles that never ran are
+reported by isComputed as well as reading back as null, so they can be told apart from pairs that ran but could not
+be calculated. A tile is marked computed only after all of its rows are written, so a computed cell is always final.
+ */
+public class PartialCorrelationMatrix implements CorrelationMatrix {
+    private final PackedCorrelationMatrix matrix;
+    private final int tileSize;
+    private final int blocks;
+    private final AtomicIntegerArray computed;
+
+    PartialCorrelationMatrix(List<String> symbols, int tileSize) {
+        this.matrix = new PackedCorrelationMatrix(symbols);
+        this.tileSize = tileSize;
+        this.blocks = (symbols.size() + tileSize - 1) / tileSize;
+        this.computed = new AtomicIntegerArray(blocks * blocks);
+    }
+
+    @Override
+    public int size() {
+        return matrix.size();
+    }
+
+    @Override
+    public String getAxisLabel(int i) {
+        return matrix.getAxisLabel(i);
+    }
+
+    @Override
+    public BigDecimal getCell(int x, int y) {
+        return isComputed(x, y) ? matrix.getCell(x, y) : null;
+    }
+
+    @Override
+    public double getCorrelation(int x, int y) {
+        return isComputed(x, y) ? matrix.getCorrelation(x, y) : Double.NaN;
+    }
+
+    public boolean isComputed(int x, int y) {
+        if (x == y) {
+            return false;
+        }
+        return computed.get(Math.min(x, y) / tileSize * blocks + Math.max(x, y) / tileSize) != 0;
+    }
+
+    public long getComputedPairCount() {
+        long pairs = 0;
+        for (int y = 0; y < size(); y++) {
+            for (int x = y + 1; x < size(); x++) {
+                if (isComputed(x, y)) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    CorrelationSink getSink() {
+        return matrix;
+    }
+
+    void markComputed(CorrelationTile tile) {
+        computed.set(tile.yStart / tileSize * blocks + tile.xStart / tileSize, 1);
+    }
+}
@@ -0,0 +1,86 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Correlates every row axis with every column axis - m x k pairs - with the same tiles and fused kernel as the square
+double calculator, for questions such as which stocks move with an exchange rate.
+ */
+public class RectangularCorrelationCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int tileSize;
+
+    public RectangularCorrelationCalculator(Listener<Exception> exceptionListener) {
+        this(exceptionListener, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public RectangularCorrelationCalculator(Listener<Exception> exceptionListener, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.tileSize = tileSize;
+    }
+
+    public RectangularCorrelationMatrix calculate(List<Axis> rows, List<Axis> columns, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        RectangularCorrelationMatrix matrix = new RectangularCorrelationMatrix(labels(rows), labels(columns));
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.splitRectangle(rows.size(), columns.size(),
+                (xStart, xStop, yStart, yStop) -> new RectangularTile(rows, columns, matrix, exceptionListener, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated %1$dx%2$d correlations in %3$f/s", rows.size(), columns.size(), (stopTime - startTime) / 1000.0));
+        return matrix;
+    }
+
+    private List<String> labels(List<Axis> axes) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        return labels;
+    }
+
+    static class RectangularTile extends CorrelationTile {
+        private final List<Axis> rows;
+        private final List<Axis> columns;
+        private final RectangularCorrelationMatrix matrix;
+        private final Listener<Exception> exceptionListener;
+
+        RectangularTile(List<Axis> rows, List<Axis> columns, RectangularCorrelationMatrix matrix, Listener<Exception> exceptionListener,
+                        int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.rows = rows;
+            this.columns = columns;
+            this.matrix = matrix;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        int getPairCount() {
+            return (xStop - xStart) * (yStop - yStart);
+        }
+
+        @Override
+        protected void compute() {
+            PairMoments moments = new PairMoments();
+            double[] row = new double[xStop - xStart];
+            for (int y = yStart; y < yStop; y++) {
+                Axis rowAxis = rows.get(y);
+                for (int x = xStart; x < xStop; x++) {
+                    moments.clear();
+                    try {
+                        row[x - xStart] = DoubleCorrelationMatrixCalculatorImpl.FusedCorrelationCalculator.accumulate(columns.get(x), rowAxis, moments).getCorrelation();
+                    } catch (CanNotCalculateException e) {
+                        row[x - xStart] = Double.NaN;
+                        exceptionListener.listen(e);
+                    }
+                }
+                matrix.write(y, xStart, row, xStop - xStart);
+            }
+        }
+    }
+}
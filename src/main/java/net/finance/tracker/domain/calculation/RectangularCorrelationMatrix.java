@@ -0,0 +1,65 @@
+package net.finance.tracker.domain.calculation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Correlations between two different sets of axes, such as stocks against FX rates, stored densely row by row. Unlike
+CorrelationMatrix there is no symmetry or diagonal; every cell is a distinct pair. NaN marks pairs that could not be
+calculated.
+ */
+public class RectangularCorrelationMatrix {
+    private final List<String> rowLabels;
+    private final List<String> columnLabels;
+    private final double[] data;
+
+    RectangularCorrelationMatrix(List<String> rowLabels, List<String> columnLabels) {
+        this.rowLabels = rowLabels;
+        this.columnLabels = columnLabels;
+        this.data = new double[Math.multiplyExact(rowLabels.size(), columnLabels.size())];
+        Arrays.fill(data, Double.NaN);
+    }
+
+    public int getRowCount() {
+        return rowLabels.size();
+    }
+
+    public int getColumnCount() {
+        return columnLabels.size();
+    }
+
+    public String getRowLabel(int row) {
+        return rowLabels.get(row);
+    }
+
+    public String getColumnLabel(int column) {
+        return columnLabels.get(column);
+    }
+
+    public double getCorrelation(int row, int column) {
+        return data[row * columnLabels.size() + column];
+    }
+
+    public BigDecimal getCell(int row, int column) {
+        double correlation = getCorrelation(row, column);
+        return Double.isNaN(correlation) ? null : BigDecimal.valueOf(correlation);
+    }
+
+    public double[] getRow(int row) {
+        int columns = columnLabels.size();
+        return Arrays.copyOfRange(data, row * columns, (row + 1) * columns);
+    }
+
+    public double[] getColumn(int column) {
+        double[] values = new double[rowLabels.size()];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = getCorrelation(row, column);
+        }
+        return values;
+    }
+
+    void write(int row, int columnStart, double[] correlations, int length) {
+        System.arraycopy(correlations, 0, data, row * columnLabels.size() + columnStart, length);
+    }
+}
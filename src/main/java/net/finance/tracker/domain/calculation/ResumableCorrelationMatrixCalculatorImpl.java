@@ -0,0 +1,123 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.CorrelationTileScheduler.TileBounds;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+The fused double calculation with every finished tile appended to a TileJournal. Restarted on the same axes, tiles
+already in the journal are read back instead of recalculated, so a killed multi-hour run only repeats the tiles that
+were in flight.
+ */
+public class ResumableCorrelationMatrixCalculatorImpl implements StreamingCorrelationMatrixCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final Path journalPath;
+    private final int tileSize;
+
+    public ResumableCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, Path journalPath) {
+        this(exceptionListener, journalPath, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public ResumableCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, Path journalPath, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.journalPath = journalPath;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        PackedCorrelationMatrix matrix = new PackedCorrelationMatrix(labels);
+        calculate(axes, matrix, service);
+        return matrix;
+    }
+
+    @Override
+    public void calculate(List<Axis> axes, CorrelationSink sink, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<TileBounds> tiles = scheduler.split(axes.size());
+        try (TileJournal journal = TileJournal.open(journalPath, TileJournal.hash(axes), axes.size(), tileSize, tiles.size())) {
+            System.out.println(String.format("Resuming %1$dx%1$d matrix with %2$d of %3$d tiles journaled in %4$s",
+                    axes.size(), journal.getCompletedCount(), tiles.size(), journalPath));
+            List<CorrelationTile> journaledTiles = new ArrayList<>(tiles.size());
+            for (int i = 0; i < tiles.size(); i++) {
+                journaledTiles.add(new JournaledTile(i, tiles.get(i), axes, sink, journal, exceptionListener));
+            }
+            scheduler.invoke(journaledTiles, service);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated %1$d correlations in %2$f/s", correlationsToCalculate(axes.size()), (stopTime - startTime) / 1000.0));
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    // Buffers one tile's rows so they can be journaled as a single record before reaching the real sink.
+    static class JournaledTile extends CorrelationTile implements CorrelationSink {
+        private final int index;
+        private final List<Axis> axes;
+        private final CorrelationSink sink;
+        private final TileJournal journal;
+        private final Listener<Exception> exceptionListener;
+        private double[] correlations;
+
+        JournaledTile(int index, TileBounds bounds, List<Axis> axes, CorrelationSink sink, TileJournal journal, Listener<Exception> exceptionListener) {
+            super(bounds.xStart, bounds.xStop, bounds.yStart, bounds.yStop);
+            this.index = index;
+            this.axes = axes;
+            this.sink = sink;
+            this.journal = journal;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (journal.isComplete(index)) {
+                    correlations = journal.read(index);
+                } else {
+                    correlations = new double[getPairCount()];
+                    new DoubleCorrelationMatrixCalculatorImpl.FusedTile(axes, this, exceptionListener, xStart, xStop, yStart, yStop).compute();
+                    journal.append(index, correlations);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            double[] row = new double[xStop - xStart];
+            int offset = 0;
+            for (int y = yStart; y < yStop; y++) {
+                int rowStart = Math.max(xStart, y + 1);
+                if (rowStart < xStop) {
+                    System.arraycopy(correlations, offset, row, 0, xStop - rowStart);
+                    sink.write(y, rowStart, row, xStop - rowStart);
+                    offset += xStop - rowStart;
+                }
+            }
+            correlations = null;
+        }
+
+        @Override
+        public void write(int y, int xStart, double[] row, int length) {
+            int offset = 0;
+            for (int rowY = yStart; rowY < y; rowY++) {
+                offset += Math.max(0, xStop - Math.max(this.xStart, rowY + 1));
+            }
+            System.arraycopy(row, 0, correlations, offset, length);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.panel.CalendarAxis;
+import net.finance.tracker.domain.panel.TradingCalendar;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Rolling correlations over every pair. A window counts the dates both axes share, so a 30 day window is the last 30
+shared observations. Each pair is aligned once and every window slides its moments along the aligned values - adding
+the newest observation and removing the one that falls out - rather than recomputing each window from scratch. The
+moments are rebuilt from the window's values once per window length so the removals cannot accumulate drift.
+ */
+public class RollingCorrelationCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int tileSize;
+
+    public RollingCorrelationCalculator(Listener<Exception> exceptionListener) {
+        this(exceptionListener, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public RollingCorrelationCalculator(Listener<Exception> exceptionListener, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.tileSize = tileSize;
+    }
+
+    public RollingCorrelationCube calculate(List<Axis> axes, int[] windows, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        TradingCalendar.TradingCalendarBuilder calendarBuilder = new TradingCalendar.TradingCalendarBuilder();
+        String[] labels = new String[axes.size()];
+        for (int i = 0; i < axes.size(); i++) {
+            calendarBuilder.addAxis(axes.get(i));
+            labels[i] = axes.get(i).getSymbol();
+        }
+        TradingCalendar calendar = calendarBuilder.build();
+        CalendarAxis[] calendarAxes = new CalendarAxis[axes.size()];
+        for (int i = 0; i < axes.size(); i++) {
+            calendarAxes[i] = new CalendarAxis(calendar, axes.get(i));
+        }
+
+        RollingCorrelationCube cube = new RollingCorrelationCube(calendar, labels, windows);
+        System.out.println(String.format("Calculating %1$d rolling windows for %2$d pairs over %3$d dates",
+                windows.length, cube.getPairCount(), calendar.size()));
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+        List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                (xStart, xStop, yStart, yStop) -> new RollingTile(calendarAxes, cube, calendar.size(), windows, xStart, xStop, yStart, yStop));
+        scheduler.invoke(tiles, service);
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated rolling correlations in %1$f/s, %2$d MB of results",
+                (stopTime - startTime) / 1000.0, cube.getStoredCount() * Float.BYTES / (1024 * 1024)));
+        return cube;
+    }
+
+    static class RollingTile extends CorrelationTile {
+        private final CalendarAxis[] axes;
+        private final RollingCorrelationCube cube;
+        private final int rowCount;
+        private final int[] windows;
+
+        RollingTile(CalendarAxis[] axes, RollingCorrelationCube cube, int rowCount, int[] windows, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.axes = axes;
+            this.cube = cube;
+            this.rowCount = rowCount;
+            this.windows = windows;
+        }
+
+        @Override
+        protected void compute() {
+            // Reused for every pair in the tile: the aligned values of the pair and the calendar row they fall on.
+            int[] sharedRows = new int[rowCount];
+            double[] xShared = new double[rowCount];
+            double[] yShared = new double[rowCount];
+            PairMoments[] moments = new PairMoments[windows.length];
+            for (int w = 0; w < windows.length; w++) {
+                moments[w] = new PairMoments();
+            }
+
+            for (int y = yStart; y < yStop; y++) {
+                for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                    int shared = align(axes[y], axes[x], sharedRows, yShared, xShared);
+                    for (int w = 0; w < windows.length; w++) {
+                        if (shared >= windows[w]) {
+                            int firstRow = sharedRows[windows[w] - 1];
+                            cube.setSeries(w, y, x, firstRow, roll(windows[w], moments[w], shared, sharedRows, yShared, xShared, firstRow));
+                        }
+                    }
+                }
+            }
+        }
+
+        // Spans the rows from the first full window to the last shared row.
+        private float[] roll(int window, PairMoments moments, int shared, int[] sharedRows, double[] yShared, double[] xShared, int firstRow) {
+            float[] series = new float[sharedRows[shared - 1] - firstRow + 1];
+            Arrays.fill(series, Float.NaN);
+            moments.clear();
+            for (int k = 0; k < shared; k++) {
+                if (k < window) {
+                    moments.add(yShared[k], xShared[k]);
+                } else if ((k - window + 1) % window == 0) {
+                    // Removals leave rounding error behind, so every window steps the moments start again from the values.
+                    moments.clear();
+                    for (int j = k - window + 1; j <= k; j++) {
+                        moments.add(yShared[j], xShared[j]);
+                    }
+                } else {
+                    moments.add(yShared[k], xShared[k]);
+                    moments.remove(yShared[k - window], xShared[k - window]);
+                }
+                if (k >= window - 1) {
+                    try {
+                        series[sharedRows[k] - firstRow] = (float)moments.getCorrelation();
+                    } catch (CanNotCalculateException e) {
+                        // A flat window has no correlation, the cell stays NaN.
+                    }
+                }
+            }
+            return series;
+        }
+
+        static int align(CalendarAxis a, CalendarAxis b, int[] sharedRows, double[] aShared, double[] bShared) {
+            int shared = 0;
+            int aIndex = 0;
+            int bIndex = 0;
+            while (aIndex < a.getLength() && bIndex < b.getLength()) {
+                int aRow = a.getRow(aIndex);
+                int bRow = b.getRow(bIndex);
+                if (aRow < bRow) {
+                    aIndex++;
+                } else if (bRow < aRow) {
+                    bIndex++;
+                } else {
+                    sharedRows[shared] = aRow;
+                    aShared[shared] = a.getValue(aIndex++);
+                    bShared[shared] = b.getValue(bIndex++);
+                    shared++;
+                }
+            }
+            return shared;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.panel.TradingCalendar;
+
+import java.util.Arrays;
+
+/*
+Rolling correlations for every pair and window, one float column per (window, pair) indexed by calendar row. Rows
+where the pair has no shared value, or fewer shared values than the window, hold NaN. Each column only stores the
+span from its first to its last correlation, so pairs with short or late shared histories do not pay for the whole
+calendar.
+ */
+public class RollingCorrelationCube {
+    private final TradingCalendar calendar;
+    private final String[] labels;
+    private final int[] windows;
+    private final float[][] columns;
+    private final int[] firstRows;
+
+    RollingCorrelationCube(TradingCalendar calendar, String[] labels, int[] windows) {
+        this.calendar = calendar;
+        this.labels = labels;
+        this.windows = windows;
+        this.columns = new float[windows.length * getPairCount()][];
+        this.firstRows = new int[columns.length];
+    }
+
+    public TradingCalendar getCalendar() {
+        return calendar;
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    public String getAxisLabel(int i) {
+        return labels[i];
+    }
+
+    public int getWindowCount() {
+        return windows.length;
+    }
+
+    public int getWindow(int windowIndex) {
+        return windows[windowIndex];
+    }
+
+    public int getPairCount() {
+        return (int)PackedCorrelationMatrix.pairCount(labels.length);
+    }
+
+    // The column expanded to one value per calendar row; a new array on every call.
+    public float[] getSeries(int windowIndex, int x, int y) {
+        int column = checkedColumnIndex(windowIndex, x, y);
+        float[] series = new float[calendar.size()];
+        Arrays.fill(series, Float.NaN);
+        float[] span = columns[column];
+        if (span != null) {
+            System.arraycopy(span, 0, series, firstRows[column], span.length);
+        }
+        return series;
+    }
+
+    public float getCorrelation(int windowIndex, int x, int y, int row) {
+        int column = checkedColumnIndex(windowIndex, x, y);
+        float[] span = columns[column];
+        int offset = row - firstRows[column];
+        return span == null || offset < 0 || offset >= span.length ? Float.NaN : span[offset];
+    }
+
+    // First calendar row of the stored span; every earlier row is NaN.
+    public int getFirstRow(int windowIndex, int x, int y) {
+        return firstRows[checkedColumnIndex(windowIndex, x, y)];
+    }
+
+    public int getSpanLength(int windowIndex, int x, int y) {
+        float[] span = columns[checkedColumnIndex(windowIndex, x, y)];
+        return span == null ? 0 : span.length;
+    }
+
+    public long getStoredCount() {
+        long count = 0;
+        for (float[] span : columns) {
+            count += span == null ? 0 : span.length;
+        }
+        return count;
+    }
+
+    void setSeries(int windowIndex, int x, int y, int firstRow, float[] span) {
+        int column = columnIndex(windowIndex, x, y);
+        firstRows[column] = firstRow;
+        columns[column] = span;
+    }
+
+    private int checkedColumnIndex(int windowIndex, int x, int y) {
+        if (x == y) {
+            throw new IllegalArgumentException(String.format("No rolling correlation of %1$s with itself", labels[x]));
+        }
+        return columnIndex(windowIndex, Math.min(x, y), Math.max(x, y));
+    }
+
+    private int columnIndex(int windowIndex, int x, int y) {
+        return windowIndex * getPairCount() + (int)PackedCorrelationMatrix.pairIndex(labels.length, x, y);
+    }
+}
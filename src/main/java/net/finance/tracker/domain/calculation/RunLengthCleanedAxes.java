@@ -0,0 +1,74 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/*
+Cleaned axes held as runs of consecutive matches - the cleaned position each run starts at, followed by where it starts
+in a and in b. Axes that trade on the same days apart from a few holidays collapse to a handful of runs.
+ */
+class RunLengthCleanedAxes extends CleanedAxes {
+    RunLengthCleanedAxes(Axis a, Axis b, int[] runs, int length) {
+        super(new RunAxis(a, runs, 1, length), new RunAxis(b, runs, 2, length));
+    }
+
+    private static class RunAxis implements Axis {
+        private final Axis source;
+        private final int[] runs;
+        private final int column;
+        private final int length;
+
+        private RunAxis(Axis source, int[] runs, int column, int length) {
+            this.source = source;
+            this.runs = runs;
+            this.column = column;
+            this.length = length;
+        }
+
+        @Override
+        public String getSymbol() {
+            return source.getSymbol();
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public BigDecimal getValue(int i) {
+            return source.getValue(sourceIndex(i));
+        }
+
+        @Override
+        public double getDoubleValue(int i) {
+            return source.getDoubleValue(sourceIndex(i));
+        }
+
+        @Override
+        public Date getDate(int i) {
+            return source.getDate(sourceIndex(i));
+        }
+
+        @Override
+        public long getTime(int i) {
+            return source.getTime(sourceIndex(i));
+        }
+
+        private int sourceIndex(int i) {
+            int low = 0;
+            int high = runs.length / 3 - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (runs[middle * 3] <= i) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return runs[low * 3 + column] + i - runs[low * 3];
+        }
+    }
+}
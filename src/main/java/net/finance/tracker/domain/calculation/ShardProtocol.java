@@ -0,0 +1,100 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/*
+The big-endian messages exchanged between ShardedCorrelationMatrixCalculatorImpl and a CorrelationWorker over the
+worker's stdin and stdout. A request carries the matrix size, the axes the shard's tiles touch (by their index in the
+full matrix) and the tile bounds. The worker answers with a stream of records ending in DONE.
+ */
+final class ShardProtocol {
+    static final int MAGIC = 0x53484152;
+    static final int VERSION = 1;
+    static final byte ROW = 1;
+    static final byte MISSING = 2;
+    static final byte FAILURE = 3;
+    static final byte DONE = 0;
+
+    private ShardProtocol() {
+    }
+
+    static void writeAxis(DataOutputStream out, int index, Axis axis) throws IOException {
+        out.writeInt(index);
+        out.writeUTF(axis.getSymbol());
+        int length = axis.getLength();
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeLong(axis.getTime(i));
+            out.writeDouble(axis.getDoubleValue(i));
+        }
+    }
+
+    static ShardAxis readAxis(DataInputStream in) throws IOException {
+        String symbol = in.readUTF();
+        int length = in.readInt();
+        long[] times = new long[length];
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            times[i] = in.readLong();
+            values[i] = in.readDouble();
+        }
+        return new ShardAxis(symbol, times, values);
+    }
+
+    static void checkHeader(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        int version = in.readInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException(String.format("Not a shard request (magic %1$x, version %2$d)", magic, version));
+        }
+    }
+
+    // The worker only ever reads these through the fused kernel, so values stay as doubles.
+    static class ShardAxis implements Axis {
+        private final String symbol;
+        private final long[] times;
+        private final double[] values;
+
+        ShardAxis(String symbol, long[] times, double[] values) {
+            this.symbol = symbol;
+            this.times = times;
+            this.values = values;
+        }
+
+        @Override
+        public String getSymbol() {
+            return symbol;
+        }
+
+        @Override
+        public int getLength() {
+            return times.length;
+        }
+
+        @Override
+        public BigDecimal getValue(int i) {
+            return BigDecimal.valueOf(values[i]);
+        }
+
+        @Override
+        public double getDoubleValue(int i) {
+            return values[i];
+        }
+
+        @Override
+        public Date getDate(int i) {
+            return new Date(times[i]);
+        }
+
+        @Override
+        public long getTime(int i) {
+            return times[i];
+        }
+    }
+}
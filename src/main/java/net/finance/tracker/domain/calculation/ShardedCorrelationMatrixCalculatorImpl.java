@@ -0,0 +1,262 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.CorrelationTileScheduler.TileBounds;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+Coordinates a calculation spread over several local worker JVMs (see CorrelationWorker), for universes that one heap
+can not hold or one machine's worth of threads would take too long over. The tiles are dealt out in contiguous runs of
+roughly equal pair counts, each worker is sent only the axes its tiles touch, and the rows it streams back are written
+into the sink as they arrive. Each blocking conversation with a worker runs on a thread of its own; the caller's
+executor is only used for the tiles of a worker that fails to start, dies or reports a failure, which are calculated
+again in this process before calculate returns.
+ */
+public class ShardedCorrelationMatrixCalculatorImpl implements StreamingCorrelationMatrixCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int workers;
+    private final int tileSize;
+    private final List<String> jvmOptions;
+
+    public ShardedCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, int workers) {
+        this(exceptionListener, workers, CorrelationTileScheduler.DEFAULT_TILE_SIZE, Collections.emptyList());
+    }
+
+    public ShardedCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, int workers, int tileSize, List<String> jvmOptions) {
+        if (workers < 1) {
+            throw new IllegalArgumentException(String.format("Need at least one worker, not %1$d", workers));
+        }
+        this.exceptionListener = exceptionListener;
+        this.workers = workers;
+        this.tileSize = tileSize;
+        this.jvmOptions = jvmOptions;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        PackedCorrelationMatrix matrix = new PackedCorrelationMatrix(labels);
+        calculate(axes, matrix, service);
+        return matrix;
+    }
+
+    @Override
+    public void calculate(List<Axis> axes, CorrelationSink sink, ExecutorService service) {
+        long startTime = System.currentTimeMillis();
+        List<List<TileBounds>> shards = shard(axes.size());
+        System.out.println(String.format("Calculating %1$dx%1$d matrix across %2$d worker processes", axes.size(), shards.size()));
+        int nThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / shards.size());
+
+        // Conversations block on the worker pipes, so they get a thread each rather than the caller's tile threads.
+        ExecutorService conversations = Executors.newFixedThreadPool(shards.size());
+        List<TileBounds> failed = new ArrayList<>();
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                Shard shard = new Shard(i, axes, shards.get(i), sink);
+                try {
+                    Process process = startWorker(nThreads);
+                    futures.add(conversations.submit(() -> shard.run(process)));
+                } catch (IOException e) {
+                    exceptionListener.listen(new IOException(String.format("Worker %1$d failed to start: %2$s", i, e.getMessage()), e));
+                    futures.add(null);
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                boolean succeeded = false;
+                try {
+                    succeeded = futures.get(i) != null && futures.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exceptionListener.listen(e);
+                } catch (ExecutionException e) {
+                    exceptionListener.listen(e);
+                }
+                if (!succeeded) {
+                    failed.addAll(shards.get(i));
+                }
+            }
+        } finally {
+            conversations.shutdown();
+        }
+        if (!failed.isEmpty()) {
+            recalculate(axes, failed, sink, service);
+        }
+        long stopTime = System.currentTimeMillis();
+        System.out.println(String.format("Calculated %1$d correlations in %2$f/s", correlationsToCalculate(axes.size()), (stopTime - startTime) / 1000.0));
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    // Runs of consecutive tiles share their rows, so cutting the tile list into runs keeps each shard's axes compact.
+    List<List<TileBounds>> shard(int size) {
+        List<TileBounds> tiles = new CorrelationTileScheduler(tileSize, exceptionListener).split(size);
+        long remaining = PackedCorrelationMatrix.pairCount(size);
+        List<List<TileBounds>> shards = new ArrayList<>(workers);
+        List<TileBounds> current = new ArrayList<>();
+        long currentPairs = 0;
+        for (TileBounds tile : tiles) {
+            current.add(tile);
+            currentPairs += tile.getPairCount();
+            int shardsLeft = workers - shards.size();
+            if (shardsLeft > 1 && currentPairs * shardsLeft >= remaining) {
+                shards.add(current);
+                remaining -= currentPairs;
+                current = new ArrayList<>();
+                currentPairs = 0;
+            }
+        }
+        if (!current.isEmpty()) {
+            shards.add(current);
+        }
+        return shards;
+    }
+
+    // A worker that failed may have streamed back only some of its rows, so all of its tiles are calculated again here.
+    private void recalculate(List<Axis> axes, List<TileBounds> bounds, CorrelationSink sink, ExecutorService service) {
+        System.out.println(String.format("Recalculating %1$d tiles of failed workers in process", bounds.size()));
+        List<CorrelationTile> tiles = new ArrayList<>(bounds.size());
+        for (TileBounds tile : bounds) {
+            tiles.add(new DoubleCorrelationMatrixCalculatorImpl.FusedTile(axes, sink, exceptionListener, tile.xStart, tile.xStop, tile.yStart, tile.yStop));
+        }
+        new CorrelationTileScheduler(tileSize, exceptionListener).invoke(tiles, service);
+    }
+
+    static BitSet axesOf(List<TileBounds> tiles) {
+        BitSet needed = new BitSet();
+        for (TileBounds tile : tiles) {
+            needed.set(tile.xStart, tile.xStop);
+            needed.set(tile.yStart, tile.yStop);
+        }
+        return needed;
+    }
+
+    private Process startWorker(int nThreads) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CorrelationWorker.class.getName());
+        command.add(Integer.toString(nThreads));
+        return new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private class Shard {
+        private final int id;
+        private final List<Axis> axes;
+        private final List<TileBounds> tiles;
+        private final CorrelationSink sink;
+
+        private Shard(int id, List<Axis> axes, List<TileBounds> tiles, CorrelationSink sink) {
+            this.id = id;
+            this.axes = axes;
+            this.tiles = tiles;
+            this.sink = sink;
+        }
+
+        // True only when the worker streamed back every tile and exited cleanly.
+        private boolean run(Process process) {
+            try {
+                sendRequest(new DataOutputStream(new BufferedOutputStream(process.getOutputStream())));
+                boolean complete = readResults(new DataInputStream(new BufferedInputStream(process.getInputStream())));
+                int exitCode = process.waitFor();
+                if (exitCode != 0) {
+                    exceptionListener.listen(new IOException(String.format("Worker %1$d exited with %2$d", id, exitCode)));
+                    return false;
+                }
+                return complete;
+            } catch (IOException e) {
+                exceptionListener.listen(new IOException(String.format("Worker %1$d failed: %2$s", id, e.getMessage()), e));
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exceptionListener.listen(e);
+                return false;
+            } finally {
+                process.destroy();
+            }
+        }
+
+        private void sendRequest(DataOutputStream out) throws IOException {
+            BitSet needed = axesOf(tiles);
+            out.writeInt(ShardProtocol.MAGIC);
+            out.writeInt(ShardProtocol.VERSION);
+            out.writeInt(axes.size());
+            out.writeInt(needed.cardinality());
+            for (int i = needed.nextSetBit(0); i >= 0; i = needed.nextSetBit(i + 1)) {
+                ShardProtocol.writeAxis(out, i, axes.get(i));
+            }
+            out.writeInt(tiles.size());
+            for (TileBounds tile : tiles) {
+                out.writeInt(tile.xStart);
+                out.writeInt(tile.xStop);
+                out.writeInt(tile.yStart);
+                out.writeInt(tile.yStop);
+            }
+            out.close();
+        }
+
+        private boolean readResults(DataInputStream in) throws IOException {
+            boolean complete = true;
+            double[] row = new double[tileSize];
+            while (true) {
+                byte record;
+                try {
+                    record = in.readByte();
+                } catch (EOFException e) {
+                    throw new IOException("Result stream ended before the shard was done", e);
+                }
+                switch (record) {
+                    case ShardProtocol.ROW:
+                        int y = in.readInt();
+                        int xStart = in.readInt();
+                        int length = in.readInt();
+                        if (length > row.length) {
+                            row = new double[length];
+                        }
+                        for (int i = 0; i < length; i++) {
+                            row[i] = in.readDouble();
+                        }
+                        sink.write(y, xStart, row, length);
+                        break;
+                    case ShardProtocol.MISSING:
+                        exceptionListener.listen(new CanNotCalculateException(in.readUTF()));
+                        break;
+                    case ShardProtocol.FAILURE:
+                        exceptionListener.listen(new IOException(String.format("Worker %1$d: %2$s", id, in.readUTF())));
+                        complete = false;
+                        break;
+                    case ShardProtocol.DONE:
+                        return complete;
+                    default:
+                        throw new IOException(String.format("Unknown record type %1$d", record));
+                }
+            }
+        }
+    }
+}
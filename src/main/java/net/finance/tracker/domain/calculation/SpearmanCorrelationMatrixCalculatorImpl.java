@@ -0,0 +1,217 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.panel.CalendarAxis;
+import net.finance.tracker.domain.panel.TradingCalendar;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/*
+Spearman's rank correlation - Pearson's correlation of the ranks, with tied values sharing their average rank.
+Each axis is sorted once on the shared calendar. A pair observed on exactly the same dates uses those ranks directly;
+otherwise the dates missing from the other axis are skipped while walking the presorted order, which re-ranks the
+shared observations in linear time instead of sorting them again for every pair.
+ */
+public class SpearmanCorrelationMatrixCalculatorImpl implements StreamingCorrelationMatrixCalculator {
+    private final Listener<Exception> exceptionListener;
+    private final int tileSize;
+
+    public SpearmanCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener) {
+        this(exceptionListener, CorrelationTileScheduler.DEFAULT_TILE_SIZE);
+    }
+
+    public SpearmanCorrelationMatrixCalculatorImpl(Listener<Exception> exceptionListener, int tileSize) {
+        this.exceptionListener = exceptionListener;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public CorrelationMatrix calculate(List<Axis> axes, ExecutorService service) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        PackedCorrelationMatrix matrix = new PackedCorrelationMatrix(labels);
+        calculate(axes, matrix, service);
+        return matrix;
+    }
+
+    @Override
+    public void calculate(List<Axis> axes, CorrelationSink sink, ExecutorService service) {
+        try {
+            long startTime = System.currentTimeMillis();
+            TradingCalendar.TradingCalendarBuilder calendarBuilder = new TradingCalendar.TradingCalendarBuilder();
+            for (Axis axis : axes) {
+                calendarBuilder.addAxis(axis);
+            }
+            TradingCalendar calendar = calendarBuilder.build();
+            RankedAxis[] rankedAxes = new RankedAxis[axes.size()];
+            int maxLength = 0;
+            for (int i = 0; i < axes.size(); i++) {
+                rankedAxes[i] = new RankedAxis(new CalendarAxis(calendar, axes.get(i)));
+                maxLength = Math.max(maxLength, rankedAxes[i].getLength());
+            }
+            long rankedTime = System.currentTimeMillis();
+            System.out.println(String.format("Ranked %1$d axes in %2$f/s", axes.size(), (rankedTime - startTime) / 1000.0));
+
+            int maxAxisLength = maxLength;
+            CorrelationTileScheduler scheduler = new CorrelationTileScheduler(tileSize, exceptionListener);
+            List<CorrelationTile> tiles = scheduler.split(axes.size(),
+                    (xStart, xStop, yStart, yStop) -> new RankTile(rankedAxes, maxAxisLength, sink, exceptionListener, xStart, xStop, yStart, yStop));
+            scheduler.invoke(tiles, service);
+            long stopTime = System.currentTimeMillis();
+            System.out.println(String.format("Calculated %1$d rank correlations in %2$f/s", correlationsToCalculate(axes.size()), (stopTime - rankedTime) / 1000.0));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int correlationsToCalculate(int axesSize) {
+        return ((int)Math.pow(axesSize, 2) - axesSize) / 2;
+    }
+
+    static class RankedAxis {
+        private final CalendarAxis axis;
+        // Positions of the observations in ascending value order, and the average rank of each observation.
+        private final int[] order;
+        private final double[] ranks;
+
+        RankedAxis(CalendarAxis axis) {
+            this.axis = axis;
+            int length = axis.getLength();
+            Integer[] boxed = new Integer[length];
+            for (int i = 0; i < length; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> Double.compare(axis.getValue(a), axis.getValue(b)));
+            this.order = new int[length];
+            for (int i = 0; i < length; i++) {
+                order[i] = boxed[i];
+            }
+            this.ranks = new double[length];
+            assignRanks(order, length, axis, ranks, null);
+        }
+
+        int getLength() {
+            return axis.getLength();
+        }
+    }
+
+    /*
+    Walks the first count entries of positions (observation positions in ascending value order) giving each one its
+    1-based rank, ties sharing the average of the ranks they span. Ranks are written by position, or through target
+    when it is given.
+     */
+    static void assignRanks(int[] positions, int count, CalendarAxis axis, double[] ranks, int[] target) {
+        int runStart = 0;
+        while (runStart < count) {
+            double value = axis.getValue(positions[runStart]);
+            int runStop = runStart + 1;
+            while (runStop < count && axis.getValue(positions[runStop]) == value) {
+                runStop++;
+            }
+            double rank = (runStart + runStop + 1) / 2.0;
+            for (int i = runStart; i < runStop; i++) {
+                ranks[target == null ? positions[i] : target[positions[i]]] = rank;
+            }
+            runStart = runStop;
+        }
+    }
+
+    static class RankTile extends CorrelationTile {
+        private final RankedAxis[] axes;
+        private final int maxLength;
+        private final CorrelationSink sink;
+        private final Listener<Exception> exceptionListener;
+
+        RankTile(RankedAxis[] axes, int maxLength, CorrelationSink sink, Listener<Exception> exceptionListener, int xStart, int xStop, int yStart, int yStop) {
+            super(xStart, xStop, yStart, yStop);
+            this.axes = axes;
+            this.maxLength = maxLength;
+            this.sink = sink;
+            this.exceptionListener = exceptionListener;
+        }
+
+        @Override
+        protected void compute() {
+            // Reused for every pair: which shared observation each position maps to (-1 if unshared), and the re-ranks.
+            int[] xShared = new int[maxLength];
+            int[] yShared = new int[maxLength];
+            int[] filtered = new int[maxLength];
+            double[] xRanks = new double[maxLength];
+            double[] yRanks = new double[maxLength];
+            PairMoments moments = new PairMoments();
+            double[] row = new double[xStop - xStart];
+            for (int y = yStart; y < yStop; y++) {
+                int rowStart = Math.max(xStart, y + 1);
+                for (int x = rowStart; x < xStop; x++) {
+                    try {
+                        row[x - rowStart] = correlate(axes[x], axes[y], xShared, yShared, filtered, xRanks, yRanks, moments);
+                    } catch (CanNotCalculateException e) {
+                        row[x - rowStart] = Double.NaN;
+                        exceptionListener.listen(new CanNotCalculateException(String.format("%1$s : %2$s - %3$s", axes[x].axis.getSymbol(), axes[y].axis.getSymbol(), e.getMessage()), e));
+                    }
+                }
+                if (rowStart < xStop) {
+                    sink.write(y, rowStart, row, xStop - rowStart);
+                }
+            }
+        }
+
+        static double correlate(RankedAxis x, RankedAxis y, int[] xShared, int[] yShared, int[] filtered, double[] xRanks, double[] yRanks, PairMoments moments) throws CanNotCalculateException {
+            int shared = match(x.axis, y.axis, xShared, yShared);
+            moments.clear();
+            if (shared == x.getLength() && shared == y.getLength()) {
+                for (int i = 0; i < shared; i++) {
+                    moments.add(x.ranks[i], y.ranks[i]);
+                }
+            } else {
+                rerank(x, xShared, filtered, xRanks);
+                rerank(y, yShared, filtered, yRanks);
+                for (int k = 0; k < shared; k++) {
+                    moments.add(xRanks[k], yRanks[k]);
+                }
+            }
+            return moments.getCorrelation();
+        }
+
+        // Merges the calendar rows of both axes, numbering the shared observations in date order.
+        private static int match(CalendarAxis x, CalendarAxis y, int[] xShared, int[] yShared) {
+            Arrays.fill(xShared, 0, x.getLength(), -1);
+            Arrays.fill(yShared, 0, y.getLength(), -1);
+            int shared = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.getLength() && j < y.getLength()) {
+                int xRow = x.getRow(i);
+                int yRow = y.getRow(j);
+                if (xRow < yRow) {
+                    i++;
+                } else if (yRow < xRow) {
+                    j++;
+                } else {
+                    xShared[i++] = shared;
+                    yShared[j++] = shared;
+                    shared++;
+                }
+            }
+            return shared;
+        }
+
+        // The presorted order with unshared observations dropped is still sorted, so ranking it needs no comparisons.
+        private static void rerank(RankedAxis axis, int[] sharedIndex, int[] filtered, double[] ranks) {
+            int count = 0;
+            for (int position : axis.order) {
+                if (sharedIndex[position] >= 0) {
+                    filtered[count++] = position;
+                }
+            }
+            assignRanks(filtered, count, axis.axis, ranks, sharedIndex);
+        }
+    }
+}
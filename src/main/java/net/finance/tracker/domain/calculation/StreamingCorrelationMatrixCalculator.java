@@ -0,0 +1,10 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+public interface StreamingCorrelationMatrixCalculator extends CorrelationMatrixCalculator {
+    void calculate(List<Axis> axes, CorrelationSink sink, ExecutorService service);
+}
@@ -0,0 +1,43 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+Keeps every pair whose absolute correlation is above the threshold.
+ */
+public class ThresholdCorrelatedPairCollector implements CorrelatedPairCollector {
+    private final double threshold;
+    private final List<CorrelatedPair> pairs = new ArrayList<>();
+
+    public ThresholdCorrelatedPairCollector(double threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public CorrelatedPairCollector newCollector() {
+        return new ThresholdCorrelatedPairCollector(threshold);
+    }
+
+    @Override
+    public void offer(int xIndex, int yIndex, String symbolX, String symbolY, double correlation) {
+        if (Math.abs(correlation) > threshold) {
+            pairs.add(new CorrelatedPair(xIndex, yIndex, symbolX, symbolY, correlation));
+        }
+    }
+
+    @Override
+    public void addAll(CorrelatedPairCollector other) {
+        pairs.addAll(other.getPairs());
+    }
+
+    @Override
+    public List<CorrelatedPair> getPairs() {
+        List<CorrelatedPair> sorted = new ArrayList<>(pairs);
+        sorted.sort(Comparator.comparingDouble((CorrelatedPair pair) -> Math.abs(pair.getCorrelation())).reversed()
+                .thenComparingInt(CorrelatedPair::getYIndex)
+                .thenComparingInt(CorrelatedPair::getXIndex));
+        return sorted;
+    }
+}
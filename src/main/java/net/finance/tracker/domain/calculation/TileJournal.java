@@ -0,0 +1,179 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+Append-only record of finished tiles. The header identifies the run - matrix size, tile size and a SHA-256 of every
+axis symbol, date and value - so a journal left by a killed run is only reused for exactly the same inputs. Each record
+holds a tile's index, its correlations in row order and a CRC32, and a torn record at the end is cut off on open.
+Records reach the operating system as they are appended, which survives the JVM being killed but not a power failure.
+ */
+class TileJournal implements Closeable {
+    private static final int MAGIC = 0x544A524E;
+    private static final int VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + 4 + 4 + HASH_LENGTH;
+    private static final int RECORD_OVERHEAD = 4 + 4 + 4;
+
+    private final FileChannel channel;
+    private final long[] offsets;
+    private long end;
+
+    private TileJournal(FileChannel channel, int tileCount) {
+        this.channel = channel;
+        this.offsets = new long[tileCount];
+        Arrays.fill(offsets, -1L);
+    }
+
+    static TileJournal open(Path path, byte[] hash, int size, int tileSize, int tileCount) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        TileJournal journal = new TileJournal(channel, tileCount);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(tileSize).put(hash).flip();
+            if (matches(channel, header)) {
+                journal.scan();
+            } else {
+                channel.truncate(0);
+                write(channel, header, 0);
+                journal.end = HEADER_LENGTH;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    static byte[] hash(List<Axis> axes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            for (Axis axis : axes) {
+                digest.update(axis.getSymbol().getBytes(StandardCharsets.UTF_8));
+                buffer.clear();
+                digest.update(buffer.putInt(axis.getLength()).flip());
+                for (int i = 0; i < axis.getLength(); i++) {
+                    buffer.clear();
+                    buffer.putLong(axis.getTime(i)).putLong(Double.doubleToLongBits(axis.getDoubleValue(i))).flip();
+                    digest.update(buffer);
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int getCompletedCount() {
+        int completed = 0;
+        for (long offset : offsets) {
+            if (offset >= 0) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    boolean isComplete(int tile) {
+        return offsets[tile] >= 0;
+    }
+
+    double[] read(int tile) throws IOException {
+        long offset = offsets[tile];
+        ByteBuffer count = ByteBuffer.allocate(4);
+        read(channel, count, offset + 4);
+        ByteBuffer values = ByteBuffer.allocate(count.getInt() * 8);
+        read(channel, values, offset + 8);
+        double[] correlations = new double[values.capacity() / 8];
+        values.asDoubleBuffer().get(correlations);
+        return correlations;
+    }
+
+    void append(int tile, double[] correlations) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + correlations.length * 8);
+        record.putInt(tile).putInt(correlations.length);
+        for (double correlation : correlations) {
+            record.putDouble(correlation);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int)crc.getValue()).flip();
+        long offset;
+        synchronized (this) {
+            offset = end;
+            end += record.remaining();
+        }
+        write(channel, record, offset);
+        offsets[tile] = offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void scan() throws IOException {
+        long length = channel.size();
+        long offset = HEADER_LENGTH;
+        ByteBuffer prefix = ByteBuffer.allocate(8);
+        while (offset + RECORD_OVERHEAD <= length) {
+            prefix.clear();
+            read(channel, prefix, offset);
+            int tile = prefix.getInt();
+            int count = prefix.getInt();
+            long recordLength = RECORD_OVERHEAD + (long)count * 8;
+            if (tile < 0 || tile >= offsets.length || count < 0 || offset + recordLength > length) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate((int)recordLength);
+            read(channel, record, offset);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 0, record.capacity() - 4);
+            if ((int)crc.getValue() != record.getInt(record.capacity() - 4)) {
+                break;
+            }
+            offsets[tile] = offset;
+            offset += recordLength;
+        }
+        channel.truncate(offset);
+        end = offset;
+    }
+
+    private static boolean matches(FileChannel channel, ByteBuffer expected) throws IOException {
+        if (channel.size() < HEADER_LENGTH) {
+            return false;
+        }
+        ByteBuffer actual = ByteBuffer.allocate(HEADER_LENGTH);
+        read(channel, actual, 0);
+        return actual.equals(expected);
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
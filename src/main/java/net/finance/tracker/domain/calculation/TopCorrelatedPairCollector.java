@@ -0,0 +1,71 @@
+package net.finance.tracker.domain.calculation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+Keeps the k strongest pairs in a bounded min-heap - either by absolute correlation, so strong negative correlations
+count, or by signed correlation.
+ */
+public class TopCorrelatedPairCollector implements CorrelatedPairCollector {
+    private final int k;
+    private final boolean absolute;
+    private final Comparator<CorrelatedPair> weakestFirst;
+    private final PriorityQueue<CorrelatedPair> heap;
+
+    public TopCorrelatedPairCollector(int k, boolean absolute) {
+        if (k < 1) {
+            throw new IllegalArgumentException(String.format("Need to keep at least one pair, not %1$d", k));
+        }
+        this.k = k;
+        this.absolute = absolute;
+        this.weakestFirst = Comparator.comparingDouble((CorrelatedPair pair) -> strength(pair.getCorrelation()))
+                .thenComparing(Comparator.comparingInt(CorrelatedPair::getYIndex).reversed())
+                .thenComparing(Comparator.comparingInt(CorrelatedPair::getXIndex).reversed());
+        this.heap = new PriorityQueue<>(k + 1, weakestFirst);
+    }
+
+    @Override
+    public CorrelatedPairCollector newCollector() {
+        return new TopCorrelatedPairCollector(k, absolute);
+    }
+
+    @Override
+    public void offer(int xIndex, int yIndex, String symbolX, String symbolY, double correlation) {
+        // NaN would outrank every real correlation in the heap's ordering.
+        if (!Double.isFinite(correlation)) {
+            return;
+        }
+        if (heap.size() == k && strength(correlation) < strength(heap.peek().getCorrelation())) {
+            return;
+        }
+        offer(new CorrelatedPair(xIndex, yIndex, symbolX, symbolY, correlation));
+    }
+
+    private void offer(CorrelatedPair pair) {
+        heap.add(pair);
+        if (heap.size() > k) {
+            heap.poll();
+        }
+    }
+
+    @Override
+    public void addAll(CorrelatedPairCollector other) {
+        for (CorrelatedPair pair : other.getPairs()) {
+            offer(pair);
+        }
+    }
+
+    @Override
+    public List<CorrelatedPair> getPairs() {
+        List<CorrelatedPair> pairs = new ArrayList<>(heap);
+        pairs.sort(weakestFirst.reversed());
+        return pairs;
+    }
+
+    private double strength(double correlation) {
+        return absolute ? Math.abs(correlation) : correlation;
+    }
+}
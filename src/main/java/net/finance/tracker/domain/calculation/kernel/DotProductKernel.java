@@ -0,0 +1,28 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+/*
+The primitive inner loops of the calculators. Every method works on the half open range [from, to) of its arrays.
+ */
+public interface DotProductKernel {
+    int COUNT = 0;
+    int X_SUM = 1;
+    int Y_SUM = 2;
+    int X_SQUARES = 3;
+    int Y_SQUARES = 4;
+    int PRODUCTS = 5;
+    int MOMENTS = 6;
+
+    String getName();
+
+    double sum(double[] x, int from, int to);
+
+    double sumOfSquaredDeviations(double[] x, double mean, int from, int to);
+
+    double dot(double[] x, double[] y, int from, int to);
+
+    /*
+    Adds the pairwise-complete moments of two zero-filled columns and their 0/1 masks into
+    moments[offset + COUNT..offset + PRODUCTS].
+     */
+    void maskedMoments(double[] x, double[] xMask, double[] y, double[] yMask, int from, int to, double[] moments, int offset);
+}
@@ -0,0 +1,39 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+/*
+Picks the Vector API kernel when it was compiled in (the vector profile, JDK 16+), the jdk.incubator.vector module was
+added to the running JVM and the preferred species has more than one lane - otherwise the scalar kernel.
+ */
+public class DotProductKernels {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "net.finance.tracker.domain.calculation.kernel.VectorDotProductKernel";
+    private static volatile DotProductKernel defaultKernel;
+
+    private DotProductKernels() {
+    }
+
+    public static DotProductKernel getDefault() {
+        DotProductKernel kernel = defaultKernel;
+        if (kernel == null) {
+            kernel = loadKernel();
+            System.out.println(String.format("Using the %1$s dot product kernel", kernel.getName()));
+            defaultKernel = kernel;
+        }
+        return kernel;
+    }
+
+    public static DotProductKernel getScalar() {
+        return new ScalarDotProductKernel();
+    }
+
+    private static DotProductKernel loadKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (DotProductKernel)Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (Exception | LinkageError e) {
+                System.err.println(String.format("Vector kernel unavailable, falling back to scalar: %1$s", e));
+            }
+        }
+        return getScalar();
+    }
+}
@@ -0,0 +1,92 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+/*
+Plain Java fallback - unrolled four ways with independent accumulators so the adds are not serialised on one register.
+ */
+public class ScalarDotProductKernel implements DotProductKernel {
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public double sum(double[] x, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += x[i];
+            s1 += x[i + 1];
+            s2 += x[i + 2];
+            s3 += x[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += x[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] x, double mean, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            double d0 = x[i] - mean;
+            double d1 = x[i + 1] - mean;
+            double d2 = x[i + 2] - mean;
+            double d3 = x[i + 3] - mean;
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < to; i++) {
+            double d = x[i] - mean;
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double dot(double[] x, double[] y, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += x[i] * y[i];
+            s1 += x[i + 1] * y[i + 1];
+            s2 += x[i + 2] * y[i + 2];
+            s3 += x[i + 3] * y[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += x[i] * y[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public void maskedMoments(double[] x, double[] xMask, double[] y, double[] yMask, int from, int to, double[] moments, int offset) {
+        double count = 0.0;
+        double xSum = 0.0;
+        double ySum = 0.0;
+        double xSquares = 0.0;
+        double ySquares = 0.0;
+        double products = 0.0;
+        for (int i = from; i < to; i++) {
+            double xValue = x[i];
+            double yValue = y[i];
+            double xPresent = xMask[i];
+            double yPresent = yMask[i];
+            count += xPresent * yPresent;
+            xSum += xValue * yPresent;
+            ySum += yValue * xPresent;
+            xSquares += xValue * xValue * yPresent;
+            ySquares += yValue * yValue * xPresent;
+            products += xValue * yValue;
+        }
+        moments[offset + COUNT] += count;
+        moments[offset + X_SUM] += xSum;
+        moments[offset + Y_SUM] += ySum;
+        moments[offset + X_SQUARES] += xSquares;
+        moments[offset + Y_SQUARES] += ySquares;
+        moments[offset + PRODUCTS] += products;
+    }
+}
@@ -0,0 +1,38 @@
+package net.finance.tracker.domain.panel;
+
+import net.finance.tracker.domain.axis.Axis;
+
+/*
+An axis converted once into primitives against a shared calendar: the calendar row and value of every observation.
+ */
+public class CalendarAxis {
+    private final String symbol;
+    private final int[] rows;
+    private final double[] values;
+
+    public CalendarAxis(TradingCalendar calendar, Axis axis) {
+        this.symbol = axis.getSymbol();
+        this.rows = new int[axis.getLength()];
+        this.values = new double[axis.getLength()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = calendar.indexOf(axis.getTime(i));
+            values[i] = axis.getDoubleValue(i);
+        }
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getLength() {
+        return rows.length;
+    }
+
+    public int getRow(int i) {
+        return rows[i];
+    }
+
+    public double getValue(int i) {
+        return values[i];
+    }
+}
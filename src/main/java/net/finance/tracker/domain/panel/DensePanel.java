@@ -0,0 +1,117 @@
+package net.finance.tracker.domain.panel;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.calculation.CompensatedSum;
+import net.finance.tracker.util.pattern.Builder;
+
+import java.util.List;
+
+/*
+Every axis laid out as a column over one shared calendar. Present values are stored centred on the column mean (which
+keeps the sums of products well conditioned), missing values are stored as zero with a zero in the mask column.
+ */
+public class DensePanel {
+    private final TradingCalendar calendar;
+    private final String[] labels;
+    private final double[][] values;
+    private final double[][] masks;
+    private final double[] means;
+    private final int[] presentCounts;
+
+    private DensePanel(TradingCalendar calendar, String[] labels, double[][] values, double[][] masks, double[] means, int[] presentCounts) {
+        this.calendar = calendar;
+        this.labels = labels;
+        this.values = values;
+        this.masks = masks;
+        this.means = means;
+        this.presentCounts = presentCounts;
+    }
+
+    public TradingCalendar getCalendar() {
+        return calendar;
+    }
+
+    public int getColumnCount() {
+        return labels.length;
+    }
+
+    public int getRowCount() {
+        return calendar.size();
+    }
+
+    public String getLabel(int column) {
+        return labels[column];
+    }
+
+    public double[] getCentredColumn(int column) {
+        return values[column];
+    }
+
+    public double[] getMask(int column) {
+        return masks[column];
+    }
+
+    public double getMean(int column) {
+        return means[column];
+    }
+
+    public int getPresentCount(int column) {
+        return presentCounts[column];
+    }
+
+    public boolean isPresent(int row, int column) {
+        return masks[column][row] != 0.0;
+    }
+
+    public static class DensePanelBuilder implements Builder<DensePanel> {
+        private final List<Axis> axes;
+
+        public DensePanelBuilder(List<Axis> axes) {
+            this.axes = axes;
+        }
+
+        @Override
+        public DensePanel build() {
+            TradingCalendar.TradingCalendarBuilder calendarBuilder = new TradingCalendar.TradingCalendarBuilder();
+            for (Axis axis : axes) {
+                calendarBuilder.addAxis(axis);
+            }
+            TradingCalendar calendar = calendarBuilder.build();
+
+            int nColumns = axes.size();
+            String[] labels = new String[nColumns];
+            double[][] values = new double[nColumns][];
+            double[][] masks = new double[nColumns][];
+            double[] means = new double[nColumns];
+            int[] presentCounts = new int[nColumns];
+            for (int column = 0; column < nColumns; column++) {
+                Axis axis = axes.get(column);
+                double[] value = new double[calendar.size()];
+                double[] mask = new double[calendar.size()];
+                CompensatedSum sum = new CompensatedSum();
+                for (int i = 0; i < axis.getLength(); i++) {
+                    int row = calendar.indexOf(axis.getTime(i));
+                    if (mask[row] == 0.0) {
+                        presentCounts[column]++;
+                    }
+                    value[row] = axis.getDoubleValue(i);
+                    mask[row] = 1.0;
+                }
+                for (int row = 0; row < value.length; row++) {
+                    sum.add(value[row]);
+                }
+                double mean = presentCounts[column] == 0 ? 0.0 : sum.getSum() / presentCounts[column];
+                for (int row = 0; row < value.length; row++) {
+                    if (mask[row] != 0.0) {
+                        value[row] -= mean;
+                    }
+                }
+                labels[column] = axis.getSymbol();
+                values[column] = value;
+                masks[column] = mask;
+                means[column] = mean;
+            }
+            return new DensePanel(calendar, labels, values, masks, means, presentCounts);
+        }
+    }
+}
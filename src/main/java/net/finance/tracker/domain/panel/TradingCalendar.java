@@ -0,0 +1,64 @@
+package net.finance.tracker.domain.panel;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.pattern.Builder;
+
+import java.util.Arrays;
+import java.util.Date;
+
+public class TradingCalendar {
+    private final long[] times;
+
+    public TradingCalendar(long[] times) {
+        this.times = times;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getTime(int row) {
+        return times[row];
+    }
+
+    public Date getDate(int row) {
+        return new Date(times[row]);
+    }
+
+    public int indexOf(long time) {
+        return Arrays.binarySearch(times, time);
+    }
+
+    public static class TradingCalendarBuilder implements Builder<TradingCalendar> {
+        private long[] times = new long[1024];
+        private int size;
+
+        public TradingCalendarBuilder addAxis(Axis axis) {
+            for (int i = 0; i < axis.getLength(); i++) {
+                addTime(axis.getTime(i));
+            }
+            return this;
+        }
+
+        public TradingCalendarBuilder addTime(long time) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+            }
+            times[size++] = time;
+            return this;
+        }
+
+        @Override
+        public TradingCalendar build() {
+            long[] sorted = Arrays.copyOf(times, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return new TradingCalendar(Arrays.copyOf(sorted, distinct));
+        }
+    }
+}
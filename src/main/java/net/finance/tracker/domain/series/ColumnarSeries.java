@@ -0,0 +1,6 @@
+package net.finance.tracker.domain.series;
+
+// A series backed by SeriesColumns, which can be stored and reloaded without going through BigDecimal.
+public interface ColumnarSeries extends Series {
+    SeriesColumns getColumns();
+}
@@ -3,28 +3,16 @@ package net.finance.tracker.domain.series;
 import net.finance.tracker.util.pattern.Builder;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
-public class FXSeries implements Series {
+public class FXSeries implements ColumnarSeries {
     private final String symbol;
-    private final Date[] date;
-    private final BigDecimal[] open;
-    private final BigDecimal[] close;
-    private final BigDecimal[] high;
-    private final BigDecimal[] low;
-    private final BigDecimal[] adjClose;
+    private final SeriesColumns columns;
     private final int nDataQualityIssues;
 
-    private FXSeries(String symbol, Date[] date, BigDecimal[] open, BigDecimal[] close, BigDecimal[] high, BigDecimal[] low, BigDecimal[] adjClose, int nDataQualityIssues) {
+    public FXSeries(String symbol, SeriesColumns columns, int nDataQualityIssues) {
         this.symbol = symbol;
-        this.date = date;
-        this.open = open;
-        this.close = close;
-        this.high = high;
-        this.low = low;
-        this.adjClose = adjClose;
+        this.columns = columns;
         this.nDataQualityIssues = nDataQualityIssues;
     }
 
@@ -35,7 +23,7 @@ public class FXSeries implements Series {
 
     @Override
     public int getLength() {
-        return date.length;
+        return columns.getLength();
     }
 
     @Override
@@ -45,32 +33,87 @@ public class FXSeries implements Series {
 
     @Override
     public Date getDate(int i) {
-        return date[i];
+        return columns.getDate(i);
     }
 
     @Override
     public BigDecimal getOpen(int i) {
-        return open[i];
+        return columns.getDecimal(SeriesField.OPEN, i);
     }
 
     @Override
     public BigDecimal getClose(int i) {
-        return close[i];
+        return columns.getDecimal(SeriesField.CLOSE, i);
     }
 
     @Override
     public BigDecimal getHigh(int i) {
-        return high[i];
+        return columns.getDecimal(SeriesField.HIGH, i);
     }
 
     @Override
     public BigDecimal getLow(int i) {
-        return low[i];
+        return columns.getDecimal(SeriesField.LOW, i);
     }
 
     @Override
     public BigDecimal getAdjClose(int i) {
-        return adjClose[i];
+        return columns.getDecimal(SeriesField.ADJ_CLOSE, i);
+    }
+
+    @Override
+    public int getScale() {
+        return columns.getScale();
+    }
+
+    @Override
+    public long getUnscaledOpen(int i) {
+        return columns.getUnscaled(SeriesField.OPEN, i);
+    }
+
+    @Override
+    public long getUnscaledClose(int i) {
+        return columns.getUnscaled(SeriesField.CLOSE, i);
+    }
+
+    @Override
+    public long getUnscaledHigh(int i) {
+        return columns.getUnscaled(SeriesField.HIGH, i);
+    }
+
+    @Override
+    public long getUnscaledLow(int i) {
+        return columns.getUnscaled(SeriesField.LOW, i);
+    }
+
+    @Override
+    public long getUnscaledAdjClose(int i) {
+        return columns.getUnscaled(SeriesField.ADJ_CLOSE, i);
+    }
+
+    @Override
+    public SeriesColumns getColumns() {
+        return columns;
+    }
+
+    @Override
+    public long getTime(int i) {
+        return columns.getTime(i);
+    }
+
+    @Override
+    public double getDoubleValue(SeriesField field, int i) {
+        return columns.getDouble(field, i);
+    }
+
+    @Override
+    public long[] getTimes() {
+        return columns.getTimes();
+    }
+
+    @Override
+    public double[] getValues(SeriesField field) {
+        return columns.getDoubles(field);
     }
 
     @Override
@@ -79,44 +122,41 @@ public class FXSeries implements Series {
     }
 
     public static class FXSeriesBuilder implements Builder<FXSeries> {
-        private final List<Object[]> data = new ArrayList<>();
+        private final SeriesColumns.SeriesColumnsBuilder columns;
         private final String symbol;
-        private final List<Exception> dataQualityIssues = new ArrayList<>();
+        private int dataQualityIssues;
 
         public FXSeriesBuilder(String symbol) {
             this.symbol = symbol;
+            this.columns = new SeriesColumns.SeriesColumnsBuilder(false);
+        }
+
+        // Appends to a copy of an existing series.
+        public FXSeriesBuilder(FXSeries existing) {
+            this.symbol = existing.getSymbol();
+            this.columns = new SeriesColumns.SeriesColumnsBuilder(existing.columns);
+            this.dataQualityIssues = existing.getNDataQualityIssues();
         }
 
         public void addRow(Date date, BigDecimal open, BigDecimal close, BigDecimal high, BigDecimal low, BigDecimal adjClose) {
-            data.add(new Object[]{date, open, close, high, low, adjClose});
+            columns.addRow(date, open, high, low, close, adjClose, 0L);
         }
 
         public void addDataQualityIssue(Exception e) {
-            dataQualityIssues.add(e);
+            dataQualityIssues++;
+        }
+
+        public void addDataQualityIssues(int count) {
+            dataQualityIssues += count;
         }
 
         public String getSummary() {
-            return String.format("Loaded %1$d lines for %2$s with %3$d data issues", data.size(), symbol, dataQualityIssues.size());
+            return String.format("Loaded %1$d lines for %2$s with %3$d data issues", columns.size(), symbol, dataQualityIssues);
         }
 
         @Override
         public FXSeries build() {
-            Date[] dates = new Date[data.size()];
-            BigDecimal[] open = new BigDecimal[data.size()];
-            BigDecimal[] close = new BigDecimal[data.size()];
-            BigDecimal[] high = new BigDecimal[data.size()];
-            BigDecimal[] low = new BigDecimal[data.size()];
-            BigDecimal[] adjClose = new BigDecimal[data.size()];
-            for (int i = 0; i < data.size(); i++) {
-                Object[] row = data.get(i);
-                dates[i] = (Date)row[0];
-                open[i] = (BigDecimal)row[1];
-                close[i] = (BigDecimal)row[2];
-                high[i] = (BigDecimal)row[3];
-                low[i] = (BigDecimal)row[4];
-                adjClose[i] = (BigDecimal)row[5];
-            }
-            return new FXSeries(symbol, dates, open, close, high, low, adjClose, dataQualityIssues.size());
+            return new FXSeries(symbol, columns.build(), dataQualityIssues);
         }
     }
 }
@@ -13,4 +13,37 @@ public interface Series {
     BigDecimal getLow(int i);
     BigDecimal getAdjClose(int i);
     int getNDataQualityIssues();
+
+    // Every price in the series is its unscaled value times 10^-scale; -1 if some price has no exact long form.
+    int getScale();
+    long getUnscaledOpen(int i);
+    long getUnscaledClose(int i);
+    long getUnscaledHigh(int i);
+    long getUnscaledLow(int i);
+    long getUnscaledAdjClose(int i);
+
+    // Primitive access for the calculators - the date as epoch millis, and whole columns copied out in one call.
+    default long getTime(int i) {
+        return getDate(i).getTime();
+    }
+
+    default double getDoubleValue(SeriesField field, int i) {
+        return field.getValue(this, i).doubleValue();
+    }
+
+    default long[] getTimes() {
+        long[] times = new long[getLength()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = getTime(i);
+        }
+        return times;
+    }
+
+    default double[] getValues(SeriesField field) {
+        double[] values = new double[getLength()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getDoubleValue(field, i);
+        }
+        return values;
+    }
 }
@@ -0,0 +1,354 @@
+package net.finance.tracker.domain.series;
+
+import net.finance.tracker.util.pattern.Builder;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+
+/*
+The bars of one series stored column by column in primitives: the date as an int epoch day in the zone the dates were
+parsed in, each price as an unscaled long against one power of ten shared by the whole series - the smallest at which
+every price is exact - and the volume as a long. A series whose prices do not all fit that form keeps them as doubles
+instead and has no scale. Decimal getters rebuild values at the series scale, so 1.5 in a series of 1.25s reads back
+as 1.50: numerically equal, though not equals(). Dates read back as midnight of their day. The columns encode to and
+decode from a flat big-endian buffer, so a stored series loads with a few bulk copies.
+ */
+public final class SeriesColumns {
+    static final int NO_SCALE = -1;
+    private static final long DAY = 86400000L;
+    private static final int MAX_SCALE = 18;
+    private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+    private static final int FIELDS = SeriesField.values().length;
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private final ZoneId zoneId;
+    private final ZoneRules zone;
+    private final int[] days;
+    private final int scale;
+    // prices[field][i], unscaled unless the series has no scale
+    private final long[][] unscaled;
+    private final double[][] approximate;
+    private final long[] volumes;
+
+    private SeriesColumns(ZoneId zoneId, int[] days, int scale, long[][] unscaled, double[][] approximate, long[] volumes) {
+        this.zoneId = zoneId;
+        this.zone = zoneId.getRules();
+        this.days = days;
+        this.scale = scale;
+        this.unscaled = unscaled;
+        this.approximate = approximate;
+        this.volumes = volumes;
+    }
+
+    int getLength() {
+        return days.length;
+    }
+
+    long getTime(int i) {
+        return toTime(zone, days[i]);
+    }
+
+    Date getDate(int i) {
+        return new Date(getTime(i));
+    }
+
+    long[] getTimes() {
+        long[] times = new long[days.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = toTime(zone, days[i]);
+        }
+        return times;
+    }
+
+    int getScale() {
+        return scale;
+    }
+
+    long getUnscaled(SeriesField field, int i) {
+        if (scale == NO_SCALE) {
+            throw new ArithmeticException("Series has no exact fixed point representation");
+        }
+        return unscaled[field.ordinal()][i];
+    }
+
+    BigDecimal getDecimal(SeriesField field, int i) {
+        if (scale == NO_SCALE) {
+            double value = approximate[field.ordinal()][i];
+            return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+        }
+        return BigDecimal.valueOf(unscaled[field.ordinal()][i], scale);
+    }
+
+    // Both operands are exact doubles for any realistic price, so the quotient is correctly rounded like doubleValue.
+    double getDouble(SeriesField field, int i) {
+        if (scale == NO_SCALE) {
+            return approximate[field.ordinal()][i];
+        }
+        return unscaled[field.ordinal()][i] / POWERS_OF_TEN[scale];
+    }
+
+    double[] getDoubles(SeriesField field) {
+        if (scale == NO_SCALE) {
+            return approximate[field.ordinal()].clone();
+        }
+        long[] column = unscaled[field.ordinal()];
+        double[] values = new double[column.length];
+        double power = POWERS_OF_TEN[scale];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = column[i] / power;
+        }
+        return values;
+    }
+
+    long getVolume(int i) {
+        return volumes[i];
+    }
+
+    long[] getVolumes() {
+        return volumes.clone();
+    }
+
+    public int getEncodedLength() {
+        int columnLength = days.length * 8;
+        return 2 + zoneId.getId().length() + 4 + 4 + 1 + days.length * 4 + FIELDS * columnLength + (volumes == null ? 0 : columnLength);
+    }
+
+    public void encode(ByteBuffer buffer) {
+        byte[] zoneName = zoneId.getId().getBytes(StandardCharsets.US_ASCII);
+        buffer.putShort((short)zoneName.length).put(zoneName);
+        buffer.putInt(days.length).putInt(scale).put((byte)(volumes == null ? 0 : 1));
+        buffer.asIntBuffer().put(days);
+        buffer.position(buffer.position() + days.length * 4);
+        for (int f = 0; f < FIELDS; f++) {
+            if (scale == NO_SCALE) {
+                buffer.asDoubleBuffer().put(approximate[f]);
+            } else {
+                buffer.asLongBuffer().put(unscaled[f]);
+            }
+            buffer.position(buffer.position() + days.length * 8);
+        }
+        if (volumes != null) {
+            buffer.asLongBuffer().put(volumes);
+            buffer.position(buffer.position() + days.length * 8);
+        }
+    }
+
+    public static SeriesColumns decode(ByteBuffer buffer) {
+        byte[] zoneName = new byte[buffer.getShort()];
+        buffer.get(zoneName);
+        ZoneId zoneId = ZoneId.of(new String(zoneName, StandardCharsets.US_ASCII));
+        int length = buffer.getInt();
+        int scale = buffer.getInt();
+        boolean hasVolume = buffer.get() != 0;
+        int[] days = new int[length];
+        buffer.asIntBuffer().get(days);
+        buffer.position(buffer.position() + length * 4);
+        long[][] unscaled = scale == NO_SCALE ? null : new long[FIELDS][length];
+        double[][] approximate = scale == NO_SCALE ? new double[FIELDS][length] : null;
+        for (int f = 0; f < FIELDS; f++) {
+            if (scale == NO_SCALE) {
+                buffer.asDoubleBuffer().get(approximate[f]);
+            } else {
+                buffer.asLongBuffer().get(unscaled[f]);
+            }
+            buffer.position(buffer.position() + length * 8);
+        }
+        long[] volumes = null;
+        if (hasVolume) {
+            volumes = new long[length];
+            buffer.asLongBuffer().get(volumes);
+            buffer.position(buffer.position() + length * 8);
+        }
+        return new SeriesColumns(zoneId, days, scale, unscaled, approximate, volumes);
+    }
+
+    private static long offset(ZoneRules zone, long time) {
+        return zone.getOffset(Instant.ofEpochMilli(time)).getTotalSeconds() * 1000L;
+    }
+
+    static int toDay(ZoneRules zone, long time) {
+        return Math.toIntExact(Math.floorDiv(time + offset(zone, time), DAY));
+    }
+
+    // Local midnight; the offset is taken again at the candidate in case a transition lies between it and UTC midnight.
+    static long toTime(ZoneRules zone, int day) {
+        long midnight = day * DAY;
+        long offset = offset(zone, midnight);
+        if (zone.isFixedOffset()) {
+            return midnight - offset;
+        }
+        long time = midnight - offset;
+        long actual = offset(zone, time);
+        return actual == offset ? time : midnight - actual;
+    }
+
+    /*
+    Grows primitive arrays as rows arrive. The scale rises to the largest any price has needed so far, rescaling the
+    rows already held, and the builder falls back to doubles for good if a price can not be held exactly.
+     */
+    static class SeriesColumnsBuilder implements Builder<SeriesColumns> {
+        private final ZoneId zoneId;
+        private final ZoneRules zone;
+        private final boolean hasVolume;
+        private int[] days = new int[256];
+        private long[][] unscaled = new long[FIELDS][256];
+        private double[][] approximate;
+        private long[] volumes;
+        private int scale;
+        private int size;
+
+        SeriesColumnsBuilder(boolean hasVolume) {
+            this.zoneId = ZoneId.systemDefault();
+            this.zone = zoneId.getRules();
+            this.hasVolume = hasVolume;
+            this.volumes = hasVolume ? new long[256] : null;
+        }
+
+        // Continues an existing series - in its own zone, so its stored days keep their meaning.
+        SeriesColumnsBuilder(SeriesColumns existing) {
+            this.zoneId = existing.zoneId;
+            this.zone = existing.zone;
+            this.hasVolume = existing.volumes != null;
+            this.size = existing.days.length;
+            int capacity = Math.max(256, size * 2);
+            this.days = Arrays.copyOf(existing.days, capacity);
+            this.volumes = hasVolume ? Arrays.copyOf(existing.volumes, capacity) : null;
+            if (existing.scale == NO_SCALE) {
+                this.unscaled = null;
+                this.approximate = new double[FIELDS][];
+                for (int f = 0; f < FIELDS; f++) {
+                    approximate[f] = Arrays.copyOf(existing.approximate[f], capacity);
+                }
+            } else {
+                this.scale = existing.scale;
+                for (int f = 0; f < FIELDS; f++) {
+                    unscaled[f] = Arrays.copyOf(existing.unscaled[f], capacity);
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void addRow(Date date, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, BigDecimal adjClose, long volume) {
+            if (size == days.length) {
+                grow(size * 2);
+            }
+            days[size] = toDay(zone, date.getTime());
+            if (hasVolume) {
+                volumes[size] = volume;
+            }
+            set(SeriesField.OPEN, open);
+            set(SeriesField.HIGH, high);
+            set(SeriesField.LOW, low);
+            set(SeriesField.CLOSE, close);
+            set(SeriesField.ADJ_CLOSE, adjClose);
+            size++;
+        }
+
+        @Override
+        public SeriesColumns build() {
+            long[][] exact = null;
+            double[][] doubles = null;
+            if (approximate == null) {
+                exact = new long[FIELDS][];
+                for (int f = 0; f < FIELDS; f++) {
+                    exact[f] = Arrays.copyOf(unscaled[f], size);
+                }
+            } else {
+                doubles = new double[FIELDS][];
+                for (int f = 0; f < FIELDS; f++) {
+                    doubles[f] = Arrays.copyOf(approximate[f], size);
+                }
+            }
+            return new SeriesColumns(zoneId, Arrays.copyOf(days, size), approximate == null ? scale : NO_SCALE, exact, doubles,
+                    hasVolume ? Arrays.copyOf(volumes, size) : null);
+        }
+
+        private void set(SeriesField field, BigDecimal value) {
+            int f = field.ordinal();
+            if (approximate == null) {
+                if (value != null && fits(value)) {
+                    unscaled[f][size] = value.setScale(scale).unscaledValue().longValue();
+                    return;
+                }
+                switchToDoubles();
+            }
+            approximate[f][size] = value == null ? Double.NaN : value.doubleValue();
+        }
+
+        private boolean fits(BigDecimal value) {
+            int needed = Math.max(0, value.stripTrailingZeros().scale());
+            if (needed > MAX_SCALE) {
+                return false;
+            }
+            if (needed > scale && !rescale(needed)) {
+                return false;
+            }
+            return value.setScale(scale).unscaledValue().bitLength() < 64;
+        }
+
+        private boolean rescale(int newScale) {
+            long factor = 1;
+            for (int i = scale; i < newScale; i++) {
+                factor *= 10;
+            }
+            try {
+                long[][] rescaled = new long[FIELDS][];
+                for (int f = 0; f < FIELDS; f++) {
+                    rescaled[f] = new long[unscaled[f].length];
+                    for (int i = 0; i < size; i++) {
+                        rescaled[f][i] = Math.multiplyExact(unscaled[f][i], factor);
+                    }
+                    // The current row's earlier fields are already stored but not yet counted in size.
+                    if (size < rescaled[f].length) {
+                        rescaled[f][size] = Math.multiplyExact(unscaled[f][size], factor);
+                    }
+                }
+                unscaled = rescaled;
+                scale = newScale;
+                return true;
+            } catch (ArithmeticException e) {
+                return false;
+            }
+        }
+
+        private void switchToDoubles() {
+            approximate = new double[FIELDS][days.length];
+            double power = POWERS_OF_TEN[scale];
+            for (int f = 0; f < FIELDS; f++) {
+                for (int i = 0; i <= size && i < days.length; i++) {
+                    approximate[f][i] = unscaled[f][i] / power;
+                }
+            }
+            unscaled = null;
+        }
+
+        private void grow(int capacity) {
+            days = Arrays.copyOf(days, capacity);
+            if (hasVolume) {
+                volumes = Arrays.copyOf(volumes, capacity);
+            }
+            for (int f = 0; f < FIELDS; f++) {
+                if (approximate == null) {
+                    unscaled[f] = Arrays.copyOf(unscaled[f], capacity);
+                } else {
+                    approximate[f] = Arrays.copyOf(approximate[f], capacity);
+                }
+            }
+        }
+    }
+}
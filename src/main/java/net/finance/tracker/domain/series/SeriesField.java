@@ -0,0 +1,38 @@
+package net.finance.tracker.domain.series;
+
+import java.math.BigDecimal;
+
+public enum SeriesField {
+    OPEN {
+        @Override
+        public BigDecimal getValue(Series series, int i) {
+            return series.getOpen(i);
+        }
+    },
+    HIGH {
+        @Override
+        public BigDecimal getValue(Series series, int i) {
+            return series.getHigh(i);
+        }
+    },
+    LOW {
+        @Override
+        public BigDecimal getValue(Series series, int i) {
+            return series.getLow(i);
+        }
+    },
+    CLOSE {
+        @Override
+        public BigDecimal getValue(Series series, int i) {
+            return series.getClose(i);
+        }
+    },
+    ADJ_CLOSE {
+        @Override
+        public BigDecimal getValue(Series series, int i) {
+            return series.getAdjClose(i);
+        }
+    };
+
+    public abstract BigDecimal getValue(Series series, int i);
+}
@@ -5,32 +5,27 @@ import net.finance.tracker.util.pattern.Builder;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
-public class StockSeries implements Series {
+public class StockSeries implements ColumnarSeries {
     private static final DateFormat SIMPLE_DATE_FORMAT = new SimpleDateFormat("yyyyMMdd");
-    private static final int DEFAULT_LINE_SIZE = 100;
     private final String symbol;
-    private final Date[] date;
-    private final BigDecimal[] open;
-    private final BigDecimal[] high;
-    private final BigDecimal[] low;
-    private final BigDecimal[] close;
-    private final BigDecimal[] adjClose;
-    private final Long[] volume;
+    private final SeriesColumns columns;
     private final int loadErrors;
 
     public StockSeries(String symbol, Date[] date, BigDecimal[] open, BigDecimal[] high, BigDecimal[] low, BigDecimal[] close, BigDecimal[] adjClose, Long[] volume, int loadErrors) {
+        SeriesColumns.SeriesColumnsBuilder builder = new SeriesColumns.SeriesColumnsBuilder(true);
+        for (int i = 0; i < date.length; i++) {
+            builder.addRow(date[i], open[i], high[i], low[i], close[i], adjClose[i], volume[i] == null ? 0L : volume[i]);
+        }
+        this.symbol = symbol;
+        this.columns = builder.build();
+        this.loadErrors = loadErrors;
+    }
+
+    public StockSeries(String symbol, SeriesColumns columns, int loadErrors) {
         this.symbol = symbol;
-        this.date = date;
-        this.open = open;
-        this.high = high;
-        this.low = low;
-        this.close = close;
-        this.adjClose = adjClose;
-        this.volume = volume;
+        this.columns = columns;
         this.loadErrors = loadErrors;
     }
 
@@ -39,7 +34,7 @@ public class StockSeries implements Series {
     }
 
     public int getLength() {
-        return date.length;
+        return columns.getLength();
     }
 
     public String getSymbol() {
@@ -48,42 +43,101 @@ public class StockSeries implements Series {
 
     @Override
     public Date getDate(int i) {
-        return date[i];
+        return columns.getDate(i);
     }
 
     @Override
     public BigDecimal getOpen(int i) {
-        return open[i];
+        return columns.getDecimal(SeriesField.OPEN, i);
     }
 
     @Override
     public BigDecimal getHigh(int i) {
-        return high[i];
+        return columns.getDecimal(SeriesField.HIGH, i);
     }
 
     @Override
     public BigDecimal getLow(int i) {
-        return low[i];
+        return columns.getDecimal(SeriesField.LOW, i);
     }
 
     @Override
     public BigDecimal getClose(int i) {
-        return close[i];
+        return columns.getDecimal(SeriesField.CLOSE, i);
     }
 
     @Override
     public BigDecimal getAdjClose(int i) {
-        return adjClose[i];
+        return columns.getDecimal(SeriesField.ADJ_CLOSE, i);
+    }
+
+    @Override
+    public int getScale() {
+        return columns.getScale();
+    }
+
+    @Override
+    public long getUnscaledOpen(int i) {
+        return columns.getUnscaled(SeriesField.OPEN, i);
+    }
+
+    @Override
+    public long getUnscaledHigh(int i) {
+        return columns.getUnscaled(SeriesField.HIGH, i);
+    }
+
+    @Override
+    public long getUnscaledLow(int i) {
+        return columns.getUnscaled(SeriesField.LOW, i);
+    }
+
+    @Override
+    public long getUnscaledClose(int i) {
+        return columns.getUnscaled(SeriesField.CLOSE, i);
+    }
+
+    @Override
+    public long getUnscaledAdjClose(int i) {
+        return columns.getUnscaled(SeriesField.ADJ_CLOSE, i);
+    }
+
+    @Override
+    public SeriesColumns getColumns() {
+        return columns;
+    }
+
+    @Override
+    public long getTime(int i) {
+        return columns.getTime(i);
+    }
+
+    @Override
+    public double getDoubleValue(SeriesField field, int i) {
+        return columns.getDouble(field, i);
+    }
+
+    @Override
+    public long[] getTimes() {
+        return columns.getTimes();
+    }
+
+    @Override
+    public double[] getValues(SeriesField field) {
+        return columns.getDoubles(field);
     }
 
     public Long getVolume(int i) {
-        return volume[i];
+        return columns.getVolume(i);
+    }
+
+    public long[] getVolumes() {
+        return columns.getVolumes();
     }
 
     @Override
     public String toString() {
-        if (date.length > 0) {
-            return String.format("%1$d records for stock %2$s starting from %3$s to %4$s", getLength(), symbol, SIMPLE_DATE_FORMAT.format(date[0]), SIMPLE_DATE_FORMAT.format(date[getLength() - 1]));
+        if (getLength() > 0) {
+            return String.format("%1$d records for stock %2$s starting from %3$s to %4$s", getLength(), symbol, SIMPLE_DATE_FORMAT.format(getDate(0)), SIMPLE_DATE_FORMAT.format(getDate(getLength() - 1)));
         } else {
             return String.format("%1$d records for stock %2$s, no dates", getLength(), symbol);
         }
@@ -91,48 +145,40 @@ public class StockSeries implements Series {
 
     public static class StockSeriesBuilder implements Builder<Series> {
         private final String symbol;
-        private final List<Object[]> dataLines = new ArrayList<>(DEFAULT_LINE_SIZE);
-        private final List<Exception> dataQualityIssues = new ArrayList<>();
+        private final SeriesColumns.SeriesColumnsBuilder columns;
+        private int dataQualityIssues;
 
         public StockSeriesBuilder(String symbol) {
             this.symbol = symbol;
+            this.columns = new SeriesColumns.SeriesColumnsBuilder(true);
+        }
+
+        // Appends to a copy of an existing series.
+        public StockSeriesBuilder(StockSeries existing) {
+            this.symbol = existing.getSymbol();
+            this.columns = new SeriesColumns.SeriesColumnsBuilder(existing.columns);
+            this.dataQualityIssues = existing.getNDataQualityIssues();
         }
 
         public void addLine(Date date, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, BigDecimal adjClose, Long volume) {
-            dataLines.add(new Object[] {date, open, high, low, close, adjClose, volume});
+            columns.addRow(date, open, high, low, close, adjClose, volume == null ? 0L : volume);
         }
 
         public void addDataQualityIssue(Exception e) {
-            dataQualityIssues.add(e);
+            dataQualityIssues++;
+        }
+
+        public void addDataQualityIssues(int count) {
+            dataQualityIssues += count;
         }
 
         public String getSummary() {
-            return String.format("Loaded %1$d lines for symbol %2$s with %3$d data quality issues", dataLines.size(), symbol, dataQualityIssues.size());
+            return String.format("Loaded %1$d lines for symbol %2$s with %3$d data quality issues", columns.size(), symbol, dataQualityIssues);
         }
 
         @Override
         public Series build() {
-            int nRecord = dataLines.size();
-            Date[] date = new Date[nRecord];
-            BigDecimal[] open = new BigDecimal[nRecord];
-            BigDecimal[] high = new BigDecimal[nRecord];
-            BigDecimal[] low = new BigDecimal[nRecord];
-            BigDecimal[] close = new BigDecimal[nRecord];
-            BigDecimal[] adjClose = new BigDecimal[nRecord];
-            Long[] volume = new Long[nRecord];
-
-            for (int i = 0; i < dataLines.size(); i++) {
-                Object[] line = dataLines.get(i);
-                date[i] = (Date)line[0];
-                open[i] = (BigDecimal)line[1];
-                high[i] = (BigDecimal)line[2];
-                low[i] = (BigDecimal)line[3];
-                close[i] = (BigDecimal)line[4];
-                adjClose[i] = (BigDecimal)line[5];
-                volume[i] = (Long)line[6];
-            }
-
-            return new StockSeries(symbol, date, open, high, low, close, adjClose, volume, dataQualityIssues.size());
+            return new StockSeries(symbol, columns.build(), dataQualityIssues);
         }
     }
 }
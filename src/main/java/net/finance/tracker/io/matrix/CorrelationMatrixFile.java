@@ -0,0 +1,112 @@
+package net.finance.tracker.io.matrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Layout of a correlation matrix file, all big endian:
+    int     magic ("CORR")
+    int     version
+    long    offset of the first correlation
+    int     number of axes
+    UTF     one label per axis (DataOutputStream.writeUTF)
+            zero padding up to a multiple of 8 bytes
+    double  n(n-1)/2 correlations, the upper triangle without the diagonal in row major order, NaN where absent
+ */
+final class CorrelationMatrixFile {
+    static final int MAGIC = 0x434F5252;
+    static final int VERSION = 1;
+    private static final int FIXED_HEADER_LENGTH = 16;
+
+    private CorrelationMatrixFile() {
+    }
+
+    static ByteBuffer encodeHeader(List<String> labels) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(labels.size());
+        for (String label : labels) {
+            out.writeUTF(label);
+        }
+        out.flush();
+        long dataOffset = align(FIXED_HEADER_LENGTH + bytes.size());
+
+        ByteBuffer header = ByteBuffer.allocate((int)dataOffset);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(dataOffset);
+        header.put(bytes.toByteArray());
+        header.rewind();
+        return header;
+    }
+
+    static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = ByteBuffer.allocate(FIXED_HEADER_LENGTH);
+        readFully(channel, fixed, 0);
+        fixed.flip();
+        int magic = fixed.getInt();
+        int version = fixed.getInt();
+        long dataOffset = fixed.getLong();
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Not a correlation matrix file - magic number %1$08x", magic));
+        } else if (version != VERSION) {
+            throw new IOException(String.format("Unsupported correlation matrix file version %1$d", version));
+        } else if (dataOffset < FIXED_HEADER_LENGTH || dataOffset > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Corrupt correlation matrix header - data offset %1$d", dataOffset));
+        }
+
+        ByteBuffer labelBytes = ByteBuffer.allocate((int)dataOffset - FIXED_HEADER_LENGTH);
+        readFully(channel, labelBytes, FIXED_HEADER_LENGTH);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(labelBytes.array()));
+        int size = in.readInt();
+        List<String> labels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            labels.add(in.readUTF());
+        }
+        return new Header(labels, dataOffset);
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of correlation matrix file");
+            }
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + Double.BYTES - 1) & -Double.BYTES;
+    }
+
+    static class Header {
+        private final List<String> labels;
+        private final long dataOffset;
+
+        Header(List<String> labels, long dataOffset) {
+            this.labels = labels;
+            this.dataOffset = dataOffset;
+        }
+
+        List<String> getLabels() {
+            return labels;
+        }
+
+        long getDataOffset() {
+            return dataOffset;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package net.finance.tracker.io.matrix;
+
+import net.finance.tracker.domain.calculation.CorrelationMatrix;
+import net.finance.tracker.domain.calculation.CorrelationSink;
+import net.finance.tracker.domain.calculation.PackedCorrelationMatrix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Streams rows of the upper triangle to their final position in the file as tiles complete, so the matrix never has to
+be held in memory. The data region is filled with NaN up front so pairs that are never written read back as absent.
+ */
+public class CorrelationMatrixFileWriter implements CorrelationSink, Closeable {
+    private static final int FILL_BLOCK = 1 << 17;
+    private final FileChannel channel;
+    private final int size;
+    private final long dataOffset;
+
+    public CorrelationMatrixFileWriter(Path path, List<String> labels) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.size = labels.size();
+        try {
+            ByteBuffer header = CorrelationMatrixFile.encodeHeader(labels);
+            this.dataOffset = header.remaining();
+            CorrelationMatrixFile.writeFully(channel, header, 0);
+            fillWithNaN();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(int y, int xStart, double[] correlations, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length * Double.BYTES);
+        buffer.asDoubleBuffer().put(correlations, 0, length);
+        try {
+            CorrelationMatrixFile.writeFully(channel, buffer, dataOffset + PackedCorrelationMatrix.pairIndex(size, y, xStart) * Double.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    public static void write(Path path, CorrelationMatrix matrix) throws IOException {
+        List<String> labels = new ArrayList<>(matrix.size());
+        for (int i = 0; i < matrix.size(); i++) {
+            labels.add(matrix.getAxisLabel(i));
+        }
+        try (CorrelationMatrixFileWriter writer = new CorrelationMatrixFileWriter(path, labels)) {
+            for (int y = 0; y + 1 < matrix.size(); y++) {
+                double[] row = matrix.getRow(y);
+                writer.write(y, y + 1, Arrays.copyOfRange(row, y + 1, row.length), row.length - y - 1);
+            }
+        }
+    }
+
+    private void fillWithNaN() throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(FILL_BLOCK * Double.BYTES);
+        while (block.hasRemaining()) {
+            block.putDouble(Double.NaN);
+        }
+        long remaining = PackedCorrelationMatrix.pairCount(size);
+        long position = dataOffset;
+        while (remaining > 0) {
+            int count = (int)Math.min(remaining, FILL_BLOCK);
+            block.clear().limit(count * Double.BYTES);
+            CorrelationMatrixFile.writeFully(channel, block, position);
+            position += (long)count * Double.BYTES;
+            remaining -= count;
+        }
+    }
+}
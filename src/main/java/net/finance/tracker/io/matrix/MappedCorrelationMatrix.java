@@ -0,0 +1,74 @@
+package net.finance.tracker.io.matrix;
+
+import net.finance.tracker.domain.calculation.CorrelationMatrix;
+import net.finance.tracker.domain.calculation.PackedCorrelationMatrix;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+Read only view of a correlation matrix file. Only the header is read when opening; the correlations are memory mapped
+and paged in by the operating system on first touch. A single mapping is limited to 2GB, so the data region is mapped
+as a series of fixed size chunks.
+ */
+public class MappedCorrelationMatrix implements CorrelationMatrix {
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private final List<String> labels;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedCorrelationMatrix(List<String> labels, MappedByteBuffer[] chunks) {
+        this.labels = labels;
+        this.chunks = chunks;
+    }
+
+    public static MappedCorrelationMatrix open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            CorrelationMatrixFile.Header header = CorrelationMatrixFile.readHeader(channel);
+            long count = PackedCorrelationMatrix.pairCount(header.getLabels().size());
+            long expectedLength = header.getDataOffset() + count * Double.BYTES;
+            if (channel.size() < expectedLength) {
+                throw new IOException(String.format("Truncated correlation matrix file %1$s - %2$d of %3$d bytes", path, channel.size(), expectedLength));
+            }
+
+            // Mappings stay valid after the channel is closed.
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int)((count + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long first = (long)i << CHUNK_SHIFT;
+                long length = Math.min(count - first, 1L << CHUNK_SHIFT) * Double.BYTES;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, header.getDataOffset() + first * Double.BYTES, length);
+            }
+            return new MappedCorrelationMatrix(header.getLabels(), chunks);
+        }
+    }
+
+    @Override
+    public int size() {
+        return labels.size();
+    }
+
+    @Override
+    public String getAxisLabel(int i) {
+        return labels.get(i);
+    }
+
+    @Override
+    public BigDecimal getCell(int x, int y) {
+        double correlation = getCorrelation(x, y);
+        return Double.isNaN(correlation) ? null : BigDecimal.valueOf(correlation);
+    }
+
+    @Override
+    public double getCorrelation(int x, int y) {
+        if (x == y) {
+            return Double.NaN;
+        }
+        long index = PackedCorrelationMatrix.pairIndex(labels.size(), Math.min(x, y), Math.max(x, y));
+        return chunks[(int)(index >>> CHUNK_SHIFT)].getDouble((int)(index & CHUNK_MASK) * Double.BYTES);
+    }
+}
@@ -2,6 +2,7 @@ package net.finance.tracker.io.scrapper;
 
 import net.finance.tracker.domain.series.FinanceData;
 import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.io.store.SeriesStore;
 import net.finance.tracker.util.pattern.Listener;
 import net.finance.tracker.util.pattern.SetSource;
 import net.finance.tracker.io.source.ClasspathFxSymbolSource;
@@ -15,9 +16,16 @@ import java.util.concurrent.Future;
 
 public class FinanceDataLoader implements Callable<FinanceData> {
     private final Listener<Exception> exceptionListener;
+    private final SeriesStore store;
 
     public FinanceDataLoader(Listener<Exception> exceptionListener) {
+        this(exceptionListener, null);
+    }
+
+    // With a store, series are served from disk and only topped up from the network; without one every run downloads.
+    public FinanceDataLoader(Listener<Exception> exceptionListener, SeriesStore store) {
         this.exceptionListener = exceptionListener;
+        this.store = store;
     }
 
     @Override
@@ -36,23 +44,26 @@ public class FinanceDataLoader implements Callable<FinanceData> {
         ExecutorService service = Executors.newFixedThreadPool(nThreads);
 
         System.out.println(String.format("Sourced %1$d stock symbols", stockSymbols.size()));
-        Map<String, Series> stockMap = loadStockSeries(stockSymbols, firstStockPeriod, secondStockPeriod, exceptionListener, service);
+        Map<String, Series> stockMap = loadStockSeries(stockSymbols, firstStockPeriod, secondStockPeriod, exceptionListener, service, store);
 
         System.out.println(String.format("Sourced %1$d fx symbols", fxSymbols.size()));
-        Map<String,Series> fxMap = loadFxMap(fxSymbols, firstFxPeriod, secondFxPeriod, exceptionListener, service);
+        Map<String,Series> fxMap = loadFxMap(fxSymbols, firstFxPeriod, secondFxPeriod, exceptionListener, service, store);
 
         service.shutdown();
         return new FinanceData(stockMap, fxMap);
     }
 
-    private static Map<String,Series> loadStockSeries(Set<String> symbols, long firstPeriod, long secondPeriod, Listener<Exception> exceptionListener, ExecutorService service) {
+    private static Map<String,Series> loadStockSeries(Set<String> symbols, long firstPeriod, long secondPeriod, Listener<Exception> exceptionListener, ExecutorService service, SeriesStore store) {
         Map<String,Series> seriesMap = new TreeMap<>();
 
         List<Future<Series>> futures = new ArrayList<>();
         long startLoad = System.currentTimeMillis();
         long nRecords = 0L;
+        SeriesRefresher.ScrapperFactory scrappers = (scrapSymbol, from, to) -> new YahooFinanceStockScrapper(scrapSymbol, from, to, exceptionListener);
         for (String symbol : symbols) {
-            Callable<Series> loader = new YahooFinanceStockScrapper(symbol, firstPeriod, secondPeriod, exceptionListener);
+            Callable<Series> loader = store == null
+                    ? scrappers.create(symbol, firstPeriod, secondPeriod)
+                    : new SeriesRefresher(symbol, firstPeriod, secondPeriod, store, scrappers, exceptionListener);
             Future<Series> future = service.submit(loader);
             futures.add(future);
         }
@@ -70,14 +81,17 @@ public class FinanceDataLoader implements Callable<FinanceData> {
         return seriesMap;
     }
 
-    private static Map<String,Series> loadFxMap(Set<String> fxSymbols, long firstPeriod, long secondPeriod, Listener<Exception> listener, ExecutorService service) {
+    private static Map<String,Series> loadFxMap(Set<String> fxSymbols, long firstPeriod, long secondPeriod, Listener<Exception> listener, ExecutorService service, SeriesStore store) {
         Map<String, Series> fxMap = new TreeMap<>();
 
         List<Future<Series>> futures = new ArrayList<>();
         long startLoad = System.currentTimeMillis();
         long nRecords = 0L;
+        SeriesRefresher.ScrapperFactory scrappers = (scrapSymbol, from, to) -> new YahooFinanceFxScrapper(scrapSymbol, from, to, listener);
         for (String symbol :  fxSymbols) {
-            Callable<Series> loader = new YahooFinanceFxScrapper(symbol, firstPeriod, secondPeriod, listener);
+            Callable<Series> loader = store == null
+                    ? scrappers.create(symbol, firstPeriod, secondPeriod)
+                    : new SeriesRefresher(symbol, firstPeriod, secondPeriod, store, scrappers, listener);
             Future<Series> future = service.submit(loader);
             futures.add(future);
         }
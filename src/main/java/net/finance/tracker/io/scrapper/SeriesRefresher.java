@@ -0,0 +1,151 @@
+package net.finance.tracker.io.scrapper;
+
+import net.finance.tracker.domain.series.FXSeries;
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.StockSeries;
+import net.finance.tracker.io.store.SeriesStore;
+import net.finance.tracker.util.pattern.Listener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+
+/*
+Brings one stored series up to date. Only the bars from the last stored date on are requested, and none at all once the
+store already reaches the end of the period. The re-fetched last bar guards the adjusted closes: the source restates
+them for past dates after every dividend or split, so if it no longer matches the store the whole history is scraped
+again rather than mixing two adjustment bases - and only replaces the store if it spans at least the stored dates. If
+the source fails or returns nothing, the stored series is served unchanged; a symbol with nothing stored is scraped in
+full as before.
+ */
+class SeriesRefresher implements Callable<Series> {
+    private static final long DAY_SECONDS = 86400L;
+    private final String symbol;
+    private final long firstPeriod;
+    private final long secondPeriod;
+    private final SeriesStore store;
+    private final ScrapperFactory scrapperFactory;
+    private final Listener<Exception> exceptionListener;
+
+    SeriesRefresher(String symbol, long firstPeriod, long secondPeriod, SeriesStore store, ScrapperFactory scrapperFactory, Listener<Exception> exceptionListener) {
+        this.symbol = symbol;
+        this.firstPeriod = firstPeriod;
+        this.secondPeriod = secondPeriod;
+        this.store = store;
+        this.scrapperFactory = scrapperFactory;
+        this.exceptionListener = exceptionListener;
+    }
+
+    @Override
+    public Series call() throws Exception {
+        Series stored = null;
+        try {
+            stored = store.load(symbol);
+        } catch (IOException e) {
+            exceptionListener.listen(e);
+        }
+        if (stored == null || stored.getLength() == 0) {
+            Series series = scrapperFactory.create(symbol, firstPeriod, secondPeriod).call();
+            save(series);
+            return series;
+        }
+
+        int last = stored.getLength() - 1;
+        long lastTime = stored.getTime(last);
+        if (Math.max(firstPeriod, lastTime / 1000 + DAY_SECONDS) >= secondPeriod) {
+            return stored;
+        }
+        Series fresh;
+        try {
+            // From the last stored bar, so the source's current adjusted close for it can be checked against the store.
+            fresh = scrapperFactory.create(symbol, Math.max(firstPeriod, lastTime / 1000), secondPeriod).call();
+        } catch (Exception e) {
+            exceptionListener.listen(e);
+            return stored;
+        }
+        if (fresh.getLength() == 0) {
+            return stored;
+        }
+        if (!isSameAdjustment(stored, last, fresh)) {
+            // A dividend or split has restated the adjusted history, so none of the stored adjusted closes can be kept.
+            Series series;
+            try {
+                series = scrapperFactory.create(symbol, firstPeriod, secondPeriod).call();
+            } catch (Exception e) {
+                exceptionListener.listen(e);
+                return stored;
+            }
+            if (!covers(series, stored)) {
+                exceptionListener.listen(new IOException(String.format("Reloaded %1$s has %2$s bars, not covering the %3$s stored", symbol, series.getLength(), stored.getLength())));
+                return stored;
+            }
+            save(series);
+            return series;
+        }
+        Series merged = append(stored, fresh, lastTime);
+        if (merged.getLength() > stored.getLength()) {
+            save(merged);
+        }
+        return merged;
+    }
+
+    static boolean isSameAdjustment(Series stored, int i, Series fresh) {
+        long time = stored.getTime(i);
+        for (int j = 0; j < fresh.getLength(); j++) {
+            if (fresh.getTime(j) == time) {
+                BigDecimal storedAdjClose = stored.getAdjClose(i);
+                BigDecimal freshAdjClose = fresh.getAdjClose(j);
+                if (storedAdjClose == null || freshAdjClose == null) {
+                    return storedAdjClose == freshAdjClose;
+                }
+                return storedAdjClose.compareTo(freshAdjClose) == 0;
+            }
+        }
+        // Without the overlapping bar the two downloads can not be shown to share an adjustment basis.
+        return false;
+    }
+
+    static boolean covers(Series series, Series stored) {
+        return series.getLength() > 0
+                && series.getTime(0) <= stored.getTime(0)
+                && series.getTime(series.getLength() - 1) >= stored.getTime(stored.getLength() - 1);
+    }
+
+    private void save(Series series) {
+        if (series.getLength() == 0) {
+            return;
+        }
+        try {
+            store.save(series);
+        } catch (IOException | RuntimeException e) {
+            exceptionListener.listen(e);
+        }
+    }
+
+    static Series append(Series stored, Series fresh, long lastTime) {
+        if (stored instanceof StockSeries && fresh instanceof StockSeries) {
+            StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder((StockSeries)stored);
+            for (int i = 0; i < fresh.getLength(); i++) {
+                if (fresh.getTime(i) > lastTime) {
+                    builder.addLine(fresh.getDate(i), fresh.getOpen(i), fresh.getHigh(i), fresh.getLow(i), fresh.getClose(i), fresh.getAdjClose(i), ((StockSeries)fresh).getVolume(i));
+                }
+            }
+            builder.addDataQualityIssues(fresh.getNDataQualityIssues());
+            return builder.build();
+        } else if (stored instanceof FXSeries && fresh instanceof FXSeries) {
+            FXSeries.FXSeriesBuilder builder = new FXSeries.FXSeriesBuilder((FXSeries)stored);
+            for (int i = 0; i < fresh.getLength(); i++) {
+                if (fresh.getTime(i) > lastTime) {
+                    builder.addRow(fresh.getDate(i), fresh.getOpen(i), fresh.getClose(i), fresh.getHigh(i), fresh.getLow(i), fresh.getAdjClose(i));
+                }
+            }
+            builder.addDataQualityIssues(fresh.getNDataQualityIssues());
+            return builder.build();
+        }
+        throw new IllegalArgumentException(String.format("Can not append %1$s to %2$s", fresh.getClass().getSimpleName(), stored.getClass().getSimpleName()));
+    }
+
+    interface ScrapperFactory {
+        Callable<Series> create(String symbol, long firstPeriod, long secondPeriod);
+    }
+}
@@ -0,0 +1,99 @@
+package net.finance.tracker.io.store;
+
+import net.finance.tracker.domain.series.ColumnarSeries;
+import net.finance.tracker.domain.series.FXSeries;
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesColumns;
+import net.finance.tracker.domain.series.StockSeries;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+One binary file per symbol holding a columnar series: a big-endian header of magic, version, kind, symbol and data
+quality issue count, followed by the encoded SeriesColumns. Files are memory mapped to load and replaced atomically
+through a temporary file to save, so a crash mid-write leaves the previous version in place.
+ */
+public class SeriesStore {
+    private static final int MAGIC = 0x53455253;
+    private static final int VERSION = 1;
+    private static final byte STOCK = 0;
+    private static final byte FX = 1;
+    private static final String EXTENSION = ".series";
+    private final Path directory;
+
+    public SeriesStore(Path directory) {
+        this.directory = directory;
+    }
+
+    // Null if the symbol has never been stored.
+    public Series load(String symbol) throws IOException {
+        Path path = pathOf(symbol);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException(String.format("%1$s is not a series file (magic %2$x, version %3$d)", path, magic, version));
+            }
+            byte kind = buffer.get();
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            int dataQualityIssues = buffer.getInt();
+            SeriesColumns columns = SeriesColumns.decode(buffer);
+            String storedSymbol = new String(name, StandardCharsets.UTF_8);
+            if (kind == STOCK) {
+                return new StockSeries(storedSymbol, columns, dataQualityIssues);
+            } else if (kind == FX) {
+                return new FXSeries(storedSymbol, columns, dataQualityIssues);
+            }
+            throw new IOException(String.format("%1$s holds an unknown series kind %2$d", path, kind));
+        } catch (RuntimeException e) {
+            throw new IOException(String.format("Corrupt series file %1$s", path), e);
+        }
+    }
+
+    public void save(Series series) throws IOException {
+        if (!(series instanceof ColumnarSeries)) {
+            throw new IllegalArgumentException(String.format("Can not store %1$s - not a columnar series", series.getSymbol()));
+        }
+        SeriesColumns columns = ((ColumnarSeries)series).getColumns();
+        byte[] name = series.getSymbol().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 1 + 2 + name.length + 4 + columns.getEncodedLength());
+        buffer.putInt(MAGIC).putInt(VERSION).put(series instanceof FXSeries ? FX : STOCK);
+        buffer.putShort((short)name.length).put(name).putInt(series.getNDataQualityIssues());
+        columns.encode(buffer);
+        buffer.flip();
+
+        Files.createDirectories(directory);
+        Path path = pathOf(series.getSymbol());
+        Path temporary = Files.createTempFile(directory, "series", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    Path pathOf(String symbol) {
+        try {
+            return directory.resolve(URLEncoder.encode(symbol, "UTF-8") + EXTENSION);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
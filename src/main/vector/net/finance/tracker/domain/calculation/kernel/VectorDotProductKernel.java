@@ -0,0 +1,114 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+Only compiled by the vector profile and only loaded by DotProductKernels when the JVM was started with
+--add-modules jdk.incubator.vector.
+ */
+public class VectorDotProductKernel implements DotProductKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    public VectorDotProductKernel() {
+        if (SPECIES.length() < 2) {
+            throw new IllegalStateException(String.format("Preferred species %1$s has a single lane", SPECIES));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return String.format("vector (%1$d lanes)", SPECIES.length());
+    }
+
+    @Override
+    public double sum(double[] x, int from, int to) {
+        DoubleVector total = DoubleVector.zero(SPECIES);
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            total = total.add(DoubleVector.fromArray(SPECIES, x, i));
+        }
+        double result = total.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result += x[i];
+        }
+        return result;
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] x, double mean, int from, int to) {
+        DoubleVector total = DoubleVector.zero(SPECIES);
+        DoubleVector means = DoubleVector.broadcast(SPECIES, mean);
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector deviation = DoubleVector.fromArray(SPECIES, x, i).sub(means);
+            total = deviation.fma(deviation, total);
+        }
+        double result = total.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double deviation = x[i] - mean;
+            result += deviation * deviation;
+        }
+        return result;
+    }
+
+    @Override
+    public double dot(double[] x, double[] y, int from, int to) {
+        DoubleVector total = DoubleVector.zero(SPECIES);
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            total = DoubleVector.fromArray(SPECIES, x, i).fma(DoubleVector.fromArray(SPECIES, y, i), total);
+        }
+        double result = total.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            result += x[i] * y[i];
+        }
+        return result;
+    }
+
+    @Override
+    public void maskedMoments(double[] x, double[] xMask, double[] y, double[] yMask, int from, int to, double[] moments, int offset) {
+        DoubleVector count = DoubleVector.zero(SPECIES);
+        DoubleVector xSum = DoubleVector.zero(SPECIES);
+        DoubleVector ySum = DoubleVector.zero(SPECIES);
+        DoubleVector xSquares = DoubleVector.zero(SPECIES);
+        DoubleVector ySquares = DoubleVector.zero(SPECIES);
+        DoubleVector products = DoubleVector.zero(SPECIES);
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector xValue = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector yValue = DoubleVector.fromArray(SPECIES, y, i);
+            DoubleVector xPresent = DoubleVector.fromArray(SPECIES, xMask, i);
+            DoubleVector yPresent = DoubleVector.fromArray(SPECIES, yMask, i);
+            count = xPresent.fma(yPresent, count);
+            xSum = xValue.fma(yPresent, xSum);
+            ySum = yValue.fma(xPresent, ySum);
+            xSquares = xValue.mul(xValue).fma(yPresent, xSquares);
+            ySquares = yValue.mul(yValue).fma(xPresent, ySquares);
+            products = xValue.fma(yValue, products);
+        }
+        moments[offset + COUNT] += count.reduceLanes(VectorOperators.ADD);
+        moments[offset + X_SUM] += xSum.reduceLanes(VectorOperators.ADD);
+        moments[offset + Y_SUM] += ySum.reduceLanes(VectorOperators.ADD);
+        moments[offset + X_SQUARES] += xSquares.reduceLanes(VectorOperators.ADD);
+        moments[offset + Y_SQUARES] += ySquares.reduceLanes(VectorOperators.ADD);
+        moments[offset + PRODUCTS] += products.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double xValue = x[i];
+            double yValue = y[i];
+            double xPresent = xMask[i];
+            double yPresent = yMask[i];
+            moments[offset + COUNT] += xPresent * yPresent;
+            moments[offset + X_SUM] += xValue * yPresent;
+            moments[offset + Y_SUM] += yValue * xPresent;
+            moments[offset + X_SQUARES] += xValue * xValue * yPresent;
+            moments[offset + Y_SQUARES] += yValue * yValue * xPresent;
+            moments[offset + PRODUCTS] += xValue * yValue;
+        }
+    }
+}
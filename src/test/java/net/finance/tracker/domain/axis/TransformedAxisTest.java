@@ -0,0 +1,102 @@
+package net.finance.tracker.domain.axis;
+
+import net.finance.tracker.domain.calculation.CorrelationMatrix;
+import net.finance.tracker.domain.calculation.DoubleCorrelationMatrixCalculatorImpl;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TransformedAxisTest {
+    private static final double TOLERANCE = 0.000000001;
+    private static final long DAY = 86400000L;
+
+    @Test
+    public void when_chaining_given_logReturnsDemeaned_then_matchesDirectCalculation() {
+        Axis prices = randomPrices("A", new Random(43L), 30);
+        Axis transformed = prices.logReturns().demeaned();
+
+        assertThat(transformed.getLength(), equalTo(prices.getLength() - 1));
+        double[] expected = new double[transformed.getLength()];
+        double mean = 0.0;
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = Math.log(prices.getDoubleValue(i + 1) / prices.getDoubleValue(i));
+            mean += expected[i] / expected.length;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(transformed.getDate(i), equalTo(prices.getDate(i + 1)));
+            assert Math.abs(transformed.getDoubleValue(i) - (expected[i] - mean)) < TOLERANCE : String.format("%1$d : %2$f vs %3$f", i, transformed.getDoubleValue(i), expected[i] - mean);
+            assert Math.abs(transformed.getValue(i).doubleValue() - transformed.getDoubleValue(i)) < TOLERANCE : "Decimal and double values should agree";
+        }
+    }
+
+    @Test
+    public void when_correlating_given_lazyReturns_then_matchesMaterialisedReturns() {
+        Random random = new Random(47L);
+        Axis a = randomPrices("A", random, 60);
+        Axis b = randomPrices("B", random, 60);
+        Axis spread = a.minus(b);
+
+        CorrelationMatrix lazy = calculate(a.returns(), spread.returns());
+        CorrelationMatrix materialised = calculate(materialise(a.returns()), materialise(spread.returns()));
+
+        assert Math.abs(lazy.getCorrelation(0, 1) - materialised.getCorrelation(0, 1)) < TOLERANCE : String.format("%1$f vs %2$f", lazy.getCorrelation(0, 1), materialised.getCorrelation(0, 1));
+    }
+
+    @Test
+    public void when_takingReturns_given_zeroPrice_then_nonFiniteReturnsAreMissingDates() {
+        BigDecimal[] values = new BigDecimal[] {
+                BigDecimal.valueOf(100), BigDecimal.valueOf(101), BigDecimal.ZERO, BigDecimal.valueOf(99), BigDecimal.valueOf(98)};
+        Date[] dates = new Date[values.length];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new Date(i * DAY);
+        }
+        Axis returns = new SimpleAxis("A", values, dates).logReturns();
+
+        // Both returns touching the zero price are dropped: log(0) and log(99 / 0).
+        assertThat(returns.getLength(), equalTo(2));
+        assertThat(returns.getDate(0), equalTo(dates[1]));
+        assertThat(returns.getDate(1), equalTo(dates[4]));
+        assertThat(returns.getTime(1), equalTo(dates[4].getTime()));
+        assert Math.abs(returns.getValue(1).doubleValue() - Math.log(98.0 / 99.0)) < TOLERANCE : returns.getValue(1).toString();
+        assertThat(returns.demeaned().getLength(), equalTo(2));
+    }
+
+    private static CorrelationMatrix calculate(Axis x, Axis y) {
+        ForkJoinPool service = new ForkJoinPool(1);
+        try {
+            return new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(Arrays.asList(x, y), service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static Axis materialise(Axis axis) {
+        BigDecimal[] values = new BigDecimal[axis.getLength()];
+        Date[] dates = new Date[axis.getLength()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = axis.getValue(i);
+            dates[i] = axis.getDate(i);
+        }
+        return new SimpleAxis(axis.getSymbol(), values, dates);
+    }
+
+    private static Axis randomPrices(String symbol, Random random, int nDates) {
+        BigDecimal[] values = new BigDecimal[nDates];
+        Date[] dates = new Date[nDates];
+        double price = 100.0;
+        for (int i = 0; i < nDates; i++) {
+            price *= 1.0 + random.nextGaussian() / 100.0;
+            values[i] = BigDecimal.valueOf(price);
+            dates[i] = new Date(i * DAY);
+        }
+        return new SimpleAxis(symbol, values, dates);
+    }
+}
@@ -0,0 +1,56 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ApproximateCorrelatedPairCalculatorTest {
+    @Test
+    public void when_screening_given_plantedPairs_then_findsThemCheckingFewCandidates() {
+        List<Axis> axes = plantedAxes(new Random(23L), 200, 400, 30);
+        ForkJoinPool service = new ForkJoinPool(2);
+        try {
+            ApproximationReport report = new ApproximateCorrelatedPairCalculator(new NoopListener())
+                    .evaluate(axes, new ThresholdCorrelatedPairCollector(0.8), service);
+
+            assert report.getExactPairCount() == 30 : String.format("Expected the 30 planted pairs, found %1$d", report.getExactPairCount());
+            assert report.getRecall() >= 0.9 : report.toString();
+            assert report.getCandidateFraction() < 0.05 : report.toString();
+            assert report.getApproximatePairCount() == report.getMatchedPairCount() : report.toString();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    // The first pairs * 2 axes are consecutive pairs sharing a factor, alternately positively and negatively; the rest are noise.
+    private static List<Axis> plantedAxes(Random random, int nAxes, int nDates, int pairs) {
+        List<Axis> axes = new ArrayList<>(nAxes);
+        double[] factor = new double[nDates];
+        for (int a = 0; a < nAxes; a++) {
+            if (a % 2 == 0) {
+                for (int i = 0; i < nDates; i++) {
+                    factor[i] = random.nextGaussian();
+                }
+            }
+            double loading = a < pairs * 2 ? (a % 4 == 3 ? -3.0 : 3.0) : 0.0;
+            List<BigDecimal> values = new ArrayList<>();
+            List<Date> dates = new ArrayList<>();
+            for (int i = 0; i < nDates; i++) {
+                if (random.nextInt(20) > 0) {
+                    values.add(BigDecimal.valueOf(50 + loading * factor[i] + random.nextGaussian()));
+                    dates.add(new Date(i * 86400000L));
+                }
+            }
+            axes.add(new SimpleAxis(String.format("AXIS%1$d", a), values.toArray(new BigDecimal[0]), dates.toArray(new Date[0])));
+        }
+        return axes;
+    }
+}
@@ -0,0 +1,93 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AsyncCorrelationMatrixCalculatorTest {
+    @Test
+    public void when_awaiting_given_noTimeout_then_matrixIsCompleteAndMatchesDouble() throws Exception {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(24L), 14, 90);
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        try {
+            CorrelationMatrix expected = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+            CorrelationRun run = new AsyncCorrelationMatrixCalculatorImpl(new NoopListener(), 0L, 4).start(axes, service);
+            PartialCorrelationMatrix actual = run.await();
+
+            assertThat(run.isComplete(), equalTo(true));
+            assertThat(run.getCompletedTiles(), equalTo(run.getTotalTiles()));
+            assertThat(run.getEstimatedRemainingMillis(), equalTo(0L));
+            assertThat(actual.getComputedPairCount(), equalTo(PackedCorrelationMatrix.pairCount(axes.size())));
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    assertThat(Double.compare(actual.getCorrelation(x, y), expected.getCorrelation(x, y)), equalTo(0));
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_cancelling_given_queuedTiles_then_theyAreSkippedAndMarkedUncomputed() throws Exception {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(25L), 10, 60);
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            service.execute(() -> {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CorrelationRun run = new AsyncCorrelationMatrixCalculatorImpl(new NoopListener(), 0L, 4).start(axes, service);
+            run.cancel();
+            blocker.countDown();
+
+            assertThat(run.await(10, TimeUnit.SECONDS), equalTo(true));
+            assertThat(run.getCompletedTiles(), equalTo(0));
+            assertThat(run.getMatrix().isComputed(1, 0), equalTo(false));
+            assertThat(run.getMatrix().getCell(1, 0), nullValue());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_deadlinePasses_given_queuedTiles_then_runFinishesWithPartialMatrix() throws Exception {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(26L), 10, 60);
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            service.execute(() -> {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CorrelationRun run = new AsyncCorrelationMatrixCalculatorImpl(new NoopListener(), 20L, 4).start(axes, service);
+            Thread.sleep(50L);
+            blocker.countDown();
+
+            assertThat(run.await(10, TimeUnit.SECONDS), equalTo(true));
+            assertThat(run.isExpired(), equalTo(true));
+            assertThat(run.isComplete(), equalTo(false));
+            assertThat(run.getMatrix().getComputedPairCount(), equalTo(0L));
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -6,7 +6,11 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -42,4 +46,102 @@ public class AxisCleanerTest {
         assertThat(bCleaned.getValue(0), equalTo(new BigDecimal(4)));
         assertThat(bCleaned.getDate(0), equalTo(new Date(2)));
     }
+
+    @Test
+    public void when_cleaningAxis_given_preparedAxesWithGaps_then_matchesDateByDateMerge() {
+        Random random = new Random(22L);
+        List<Axis> axes = new ArrayList<>();
+        for (int a = 0; a < 4; a++) {
+            List<BigDecimal> values = new ArrayList<>();
+            List<Date> dates = new ArrayList<>();
+            for (int day = 0; day < 300; day++) {
+                if (random.nextInt(4) != 0) {
+                    values.add(BigDecimal.valueOf(random.nextInt(1000)));
+                    dates.add(new Date(day * 86400000L));
+                }
+            }
+            axes.add(new SimpleAxis("axis" + a, values.toArray(new BigDecimal[0]), dates.toArray(new Date[0])));
+        }
+        AxisCleaner unprepared = new AxisCleanerImpl();
+        axisCleaner.prepare(axes);
+
+        for (int a = 0; a < axes.size(); a++) {
+            for (int b = a + 1; b < axes.size(); b++) {
+                List<Date> expected = new ArrayList<>();
+                for (int i = 0; i < axes.get(a).getLength(); i++) {
+                    for (int j = 0; j < axes.get(b).getLength(); j++) {
+                        if (axes.get(a).getDate(i).equals(axes.get(b).getDate(j))) {
+                            expected.add(axes.get(a).getDate(i));
+                        }
+                    }
+                }
+                for (CleanedAxes cleaned : Arrays.asList(axisCleaner.cleanAxes(axes.get(a), axes.get(b)), unprepared.cleanAxes(axes.get(a), axes.get(b)))) {
+                    assertThat(cleaned.getAClean().getLength(), equalTo(expected.size()));
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertThat(cleaned.getAClean().getDate(i), equalTo(expected.get(i)));
+                        assertThat(cleaned.getBClean().getDate(i), equalTo(expected.get(i)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void when_cleaningAxis_given_identicalCalendars_then_axesPassThrough() {
+        Axis aAxis = new SimpleAxis("a", new BigDecimal[] {new BigDecimal(1), new BigDecimal(2)}, new Date[] {new Date(0), new Date(1)});
+        Axis bAxis = new SimpleAxis("b", new BigDecimal[] {new BigDecimal(3), new BigDecimal(4)}, new Date[] {new Date(0), new Date(1)});
+        CleanedAxes cleanedAxes = axisCleaner.cleanAxes(aAxis, bAxis);
+
+        assert cleanedAxes.getAClean() == aAxis && cleanedAxes.getBClean() == bAxis : "Identical calendars should not be re-indexed";
+    }
+
+    @Test
+    public void when_cleaningAxis_given_repeatedDate_then_laterValuesStayOnTheirDates() {
+        Axis aAxis = new SimpleAxis("a",
+                new BigDecimal[] {new BigDecimal(10), new BigDecimal(11), new BigDecimal(99), new BigDecimal(12), new BigDecimal(13)},
+                new Date[] {new Date(0), new Date(1), new Date(1), new Date(2), new Date(3)});
+        Axis bAxis = new SimpleAxis("b",
+                new BigDecimal[] {new BigDecimal(20), new BigDecimal(21), new BigDecimal(22), new BigDecimal(23)},
+                new Date[] {new Date(0), new Date(1), new Date(2), new Date(3)});
+        AxisCleaner prepared = new AxisCleanerImpl();
+        prepared.prepare(Arrays.asList(aAxis, bAxis));
+
+        for (CleanedAxes cleaned : Arrays.asList(axisCleaner.cleanAxes(aAxis, bAxis), prepared.cleanAxes(aAxis, bAxis))) {
+            assertThat(cleaned.getAClean().getLength(), equalTo(4));
+            assertThat(cleaned.getBClean().getLength(), equalTo(4));
+            for (int i = 0; i < 4; i++) {
+                assertThat(cleaned.getAClean().getDate(i), equalTo(new Date(i)));
+                assertThat(cleaned.getBClean().getDate(i), equalTo(new Date(i)));
+                assertThat(cleaned.getAClean().getValue(i), equalTo(BigDecimal.valueOf(10 + i)));
+                assertThat(cleaned.getBClean().getValue(i), equalTo(BigDecimal.valueOf(20 + i)));
+            }
+        }
+    }
+
+    @Test
+    public void when_cleaningAxis_given_fewGaps_then_runsMapToSourcePositions() {
+        int length = 100;
+        BigDecimal[] aValues = new BigDecimal[length];
+        Date[] aDates = new Date[length];
+        BigDecimal[] bValues = new BigDecimal[length - 2];
+        Date[] bDates = new Date[length - 2];
+        for (int i = 0, j = 0; i < length; i++) {
+            aValues[i] = BigDecimal.valueOf(i);
+            aDates[i] = new Date(i);
+            if (i != 30 && i != 60) {
+                bValues[j] = BigDecimal.valueOf(-i);
+                bDates[j++] = new Date(i);
+            }
+        }
+        CleanedAxes cleanedAxes = axisCleaner.cleanAxes(new SimpleAxis("a", aValues, aDates), new SimpleAxis("b", bValues, bDates));
+
+        assert cleanedAxes instanceof RunLengthCleanedAxes : "Three runs should be run-length encoded";
+        assertThat(cleanedAxes.getAClean().getLength(), equalTo(length - 2));
+        for (int i = 0; i < length - 2; i++) {
+            assertThat(cleanedAxes.getAClean().getValue(i), equalTo(cleanedAxes.getBClean().getValue(i).negate()));
+            assertThat(cleanedAxes.getAClean().getDate(i), equalTo(cleanedAxes.getBClean().getDate(i)));
+        }
+        assertThat(cleanedAxes.getAClean().getValue(30), equalTo(BigDecimal.valueOf(31)));
+        assertThat(cleanedAxes.getAClean().getValue(59), equalTo(BigDecimal.valueOf(61)));
+    }
 }
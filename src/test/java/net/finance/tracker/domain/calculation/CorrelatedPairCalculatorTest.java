@@ -0,0 +1,93 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CorrelatedPairCalculatorTest {
+    @Test
+    public void when_selectingTopPairs_given_randomAxes_then_matchesSortedMatrix() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(17L), 12, 150);
+        List<CorrelatedPair> expected = allPairs(axes);
+        expected.sort(Comparator.comparingDouble((CorrelatedPair pair) -> Math.abs(pair.getCorrelation())).reversed());
+
+        List<CorrelatedPair> actual = select(axes, new TopCorrelatedPairCollector(7, true));
+
+        assertThat(actual.size(), equalTo(7));
+        for (int i = 0; i < actual.size(); i++) {
+            assertThat(actual.get(i).getCorrelation(), equalTo(expected.get(i).getCorrelation()));
+            assertThat(actual.get(i).getSymbolX(), equalTo(expected.get(i).getSymbolX()));
+            assertThat(actual.get(i).getSymbolY(), equalTo(expected.get(i).getSymbolY()));
+        }
+    }
+
+    @Test
+    public void when_selectingPairsAboveThreshold_given_randomAxes_then_returnsEveryStrongPair() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(19L), 12, 150);
+        int expected = 0;
+        for (CorrelatedPair pair : allPairs(axes)) {
+            if (Math.abs(pair.getCorrelation()) > 0.3) {
+                expected++;
+            }
+        }
+
+        List<CorrelatedPair> actual = select(axes, new ThresholdCorrelatedPairCollector(0.3));
+
+        assert expected > 0 : "Expected some strongly correlated pairs";
+        assertThat(actual.size(), equalTo(expected));
+        for (int i = 1; i < actual.size(); i++) {
+            assert Math.abs(actual.get(i - 1).getCorrelation()) >= Math.abs(actual.get(i).getCorrelation()) : "Pairs should be strongest first";
+        }
+    }
+
+    private List<CorrelatedPair> select(List<Axis> axes, CorrelatedPairCollector collector) {
+        ExecutorService service = Executors.newFixedThreadPool(3);
+        try {
+            return new CorrelatedPairCalculator(new NoopListener(), 3).calculate(axes, collector, service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private List<CorrelatedPair> allPairs(List<Axis> axes) {
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        CorrelationMatrix matrix;
+        try {
+            matrix = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+        List<CorrelatedPair> pairs = new ArrayList<>();
+        for (int y = 0; y < matrix.size(); y++) {
+            for (int x = y + 1; x < matrix.size(); x++) {
+                pairs.add(new CorrelatedPair(x, y, matrix.getAxisLabel(x), matrix.getAxisLabel(y), matrix.getCell(x, y).doubleValue()));
+            }
+        }
+        return pairs;
+    }
+
+    @Test
+    public void when_collectingTopPairs_given_nonFiniteCorrelation_then_itIsSkipped() {
+        TopCorrelatedPairCollector collector = new TopCorrelatedPairCollector(1, true);
+        collector.offer(1, 0, "B", "A", 0.5);
+        collector.offer(2, 0, "C", "A", Double.NaN);
+
+        assertThat(collector.getPairs().size(), equalTo(1));
+        assertThat(collector.getPairs().get(0).getCorrelation(), equalTo(0.5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_creatingTopCollector_given_zeroPairs_then_throws() {
+        new TopCorrelatedPairCollector(0, true);
+    }
+}
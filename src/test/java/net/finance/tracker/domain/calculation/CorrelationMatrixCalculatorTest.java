@@ -48,7 +48,6 @@ public class CorrelationMatrixCalculatorTest {
 
     @Test
     public void when_calculatingCorrelation_given_positiveCorrelation_then_returnsOne() throws Exception {
-        CountDownLatch latch = new CountDownLatch(1);
         MathContext mathContext = MathContext.DECIMAL64;
         BigDecimal[] data = bigDecimalArray(-1, 1, 0);
         Date[] dates = makeDates(data);
@@ -56,7 +55,7 @@ public class CorrelationMatrixCalculatorTest {
         Axis axis = new SimpleAxis("TEST", data, dates);
         AxisCleaner axisCleaner = new AxisCleanerImpl();
 
-        CorrelationMatrixCalculatorImpl.CorrelationCalculator correlation = new CorrelationMatrixCalculatorImpl.CorrelationCalculator(axis, axis, axisCleaner, MathContext.DECIMAL64, latch);
+        CorrelationMatrixCalculatorImpl.CorrelationCalculator correlation = new CorrelationMatrixCalculatorImpl.CorrelationCalculator(axis, axis, axisCleaner, MathContext.DECIMAL64);
         CorrelationMatrixCalculatorImpl.CorrelationResult result = correlation.call();
 
         assertThat(result.getSymbolX(), equalTo("TEST"));
@@ -66,7 +65,6 @@ public class CorrelationMatrixCalculatorTest {
 
     @Test
     public void when_calculateCorrelation_given_negatigveCorrelation_then_returnsMinusOne() throws Exception {
-        CountDownLatch latch = new CountDownLatch(1);
         MathContext mathContext = MathContext.DECIMAL64;
         BigDecimal[] positiveData = bigDecimalArray(-1, 1);
         BigDecimal[] negativeData = bigDecimalArray(1, -1);
@@ -77,7 +75,7 @@ public class CorrelationMatrixCalculatorTest {
         AxisCleaner cleaner = new AxisCleanerImpl();
 
         CorrelationMatrixCalculatorImpl.CorrelationCalculator correlationCalculator =
-                new CorrelationMatrixCalculatorImpl.CorrelationCalculator(positiveAxis, negativeAxis, cleaner, mathContext, latch);
+                new CorrelationMatrixCalculatorImpl.CorrelationCalculator(positiveAxis, negativeAxis, cleaner, mathContext);
 
         CorrelationMatrixCalculatorImpl.CorrelationResult result = correlationCalculator.call();
 
@@ -88,7 +86,6 @@ public class CorrelationMatrixCalculatorTest {
 
     @Test(expected = CanNotCalculateException.class)
     public void when_calculateCorrelation_given_flatSample_then_exceptionThrown() throws Exception {
-        CountDownLatch latch = new CountDownLatch(1);
         MathContext mathContext = MathContext.DECIMAL64;
         BigDecimal[] vertical = bigDecimalArray(0, 0, 0);
         BigDecimal[] horiztonal = bigDecimalArray(1, 1, 1);
@@ -99,7 +96,7 @@ public class CorrelationMatrixCalculatorTest {
         AxisCleaner cleaner = new AxisCleanerImpl();
 
         CorrelationMatrixCalculatorImpl.CorrelationCalculator correlationCalculator =
-                new CorrelationMatrixCalculatorImpl.CorrelationCalculator(verticalAxis, horizontalAxis, cleaner, mathContext, latch);
+                new CorrelationMatrixCalculatorImpl.CorrelationCalculator(verticalAxis, horizontalAxis, cleaner, mathContext);
         CorrelationMatrixCalculatorImpl.CorrelationResult result = correlationCalculator.call();
 
         assert false : "A CanNotCalculateException should not have been thrown.";
@@ -107,7 +104,6 @@ public class CorrelationMatrixCalculatorTest {
 
     @Test
     public void when_calcuateCorrelation_given_unCorrelatedButCalculable_then_returnsZero() throws Exception {
-        CountDownLatch latch = new CountDownLatch(1);
         MathContext mathContext = MathContext.DECIMAL32;
         BigDecimal[] vertical = bigDecimalArray(0, 1, 0, -1, 0, 1, 0, -1, 0, 1, 0, -1);
         BigDecimal[] horizontal = bigDecimalArray(-1, 0, 1, 0, -1, 0, 1, 0, -1, 0, 1, 0);
@@ -118,7 +114,7 @@ public class CorrelationMatrixCalculatorTest {
         AxisCleaner cleaner = new AxisCleanerImpl();
 
         CorrelationMatrixCalculatorImpl.CorrelationCalculator correlationCalculator =
-                new CorrelationMatrixCalculatorImpl.CorrelationCalculator(verticalAxis, horizontalAxis, cleaner, mathContext, latch);
+                new CorrelationMatrixCalculatorImpl.CorrelationCalculator(verticalAxis, horizontalAxis, cleaner, mathContext);
 
         CorrelationMatrixCalculatorImpl.CorrelationResult result = correlationCalculator.call();
 
@@ -0,0 +1,66 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CorrelationTileSchedulerTest {
+    @Test
+    public void when_splitting_given_raggedSize_then_everyPairIsCoveredOnce() {
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(3, new NoopListener());
+        int size = 10;
+        int[][] coverage = new int[size][size];
+        List<CorrelationTile> tiles = scheduler.split(size, (xStart, xStop, yStart, yStop) -> new CorrelationTile(xStart, xStop, yStart, yStop) {
+            @Override
+            protected void compute() {
+                for (int y = yStart; y < yStop; y++) {
+                    for (int x = Math.max(xStart, y + 1); x < xStop; x++) {
+                        coverage[y][x]++;
+                    }
+                }
+            }
+        });
+        int pairs = 0;
+        for (CorrelationTile tile : tiles) {
+            tile.invoke();
+            pairs += tile.getPairCount();
+        }
+
+        assertThat(pairs, equalTo(size * (size - 1) / 2));
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                assertThat(coverage[y][x], equalTo(x > y ? 1 : 0));
+            }
+        }
+    }
+
+    @Test
+    public void when_calculatingMatrix_given_forkJoinPool_then_matchesExecutorService() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(7L), 9, 120);
+        CorrelationMatrixCalculator calculator = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener(), 2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+
+        try {
+            CorrelationMatrix expected = calculator.calculate(axes, executor);
+            CorrelationMatrix actual = calculator.calculate(axes, forkJoinPool);
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    assertThat(actual.getCell(x, y), equalTo(expected.getCell(x, y)));
+                }
+            }
+        } finally {
+            executor.shutdown();
+            forkJoinPool.shutdown();
+        }
+    }
+}
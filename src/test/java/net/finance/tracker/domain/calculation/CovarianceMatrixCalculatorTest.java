@@ -0,0 +1,189 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernels;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class CovarianceMatrixCalculatorTest {
+    private static final double TOLERANCE = 0.000000001;
+
+    @Test
+    public void when_calculating_given_noShrinkage_then_matchesSampleCovariance() throws Exception {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(37L), 10, 200);
+        CovarianceMatrix matrix = calculate(axes, false);
+
+        assert matrix.getShrinkage() == 0.0 : "Should not shrink";
+        for (int y = 0; y < axes.size(); y++) {
+            DescriptiveStatistics expected = new DescriptiveStatistics.DoubleDescriptiveStatisticBuilder(axes.get(y), DotProductKernels.getScalar()).call();
+            double expectedVariance = Math.pow(expected.getStandardDeviation().doubleValue(), 2);
+            assert Math.abs(matrix.getVariance(y) - expectedVariance) < TOLERANCE : String.format("Variance %1$d : %2$f vs %3$f", y, matrix.getVariance(y), expectedVariance);
+            for (int x = y + 1; x < axes.size(); x++) {
+                double expectedCovariance = naiveCovariance(axes.get(x), axes.get(y));
+                assert Math.abs(matrix.getCovariance(x, y) - expectedCovariance) < TOLERANCE : String.format("%1$d,%2$d : %3$f vs %4$f", x, y, matrix.getCovariance(x, y), expectedCovariance);
+                assert matrix.getCovariance(x, y) == matrix.getCovariance(y, x) : "Covariance should be symmetric";
+            }
+        }
+    }
+
+    @Test
+    public void when_calculating_given_fewerDatesThanAxes_then_matchesLedoitWolf() {
+        int nAxes = 30;
+        int nDates = 20;
+        double[][] data = new double[nAxes][nDates];
+        List<Axis> axes = completeAxes(new Random(41L), data);
+        CovarianceMatrix matrix = calculate(axes, true);
+
+        // Direct evaluation of the estimator over the complete data.
+        double[][] sample = new double[nAxes][nAxes];
+        double[][] centred = new double[nAxes][nDates];
+        for (int i = 0; i < nAxes; i++) {
+            double mean = 0.0;
+            for (double value : data[i]) {
+                mean += value / nDates;
+            }
+            for (int t = 0; t < nDates; t++) {
+                centred[i][t] = data[i][t] - mean;
+            }
+        }
+        double target = 0.0;
+        for (int i = 0; i < nAxes; i++) {
+            for (int j = 0; j < nAxes; j++) {
+                for (int t = 0; t < nDates; t++) {
+                    sample[i][j] += centred[i][t] * centred[j][t] / nDates;
+                }
+            }
+            target += sample[i][i] / nAxes;
+        }
+        double distance = 0.0;
+        double error = 0.0;
+        for (int i = 0; i < nAxes; i++) {
+            for (int j = 0; j < nAxes; j++) {
+                double deviation = sample[i][j] - (i == j ? target : 0.0);
+                distance += deviation * deviation;
+                double mean = 0.0;
+                double squares = 0.0;
+                for (int t = 0; t < nDates; t++) {
+                    double product = centred[i][t] * centred[j][t];
+                    mean += product / nDates;
+                    squares += product * product / nDates;
+                }
+                error += (squares - mean * mean) / nDates;
+            }
+        }
+        double shrinkage = Math.min(error, distance) / distance;
+
+        assert shrinkage > 0.0 && shrinkage < 1.0 : String.format("Shrinkage %1$f should be strictly between 0 and 1", shrinkage);
+        assert Math.abs(matrix.getShrinkage() - shrinkage) < TOLERANCE : String.format("Shrinkage %1$f vs %2$f", matrix.getShrinkage(), shrinkage);
+        for (int i = 0; i < nAxes; i++) {
+            for (int j = 0; j < nAxes; j++) {
+                double expected = (1.0 - shrinkage) * sample[i][j] + (i == j ? shrinkage * target : 0.0);
+                assert Math.abs(matrix.getCovariance(i, j) - expected) < TOLERANCE : String.format("%1$d,%2$d : %3$f vs %4$f", i, j, matrix.getCovariance(i, j), expected);
+            }
+        }
+    }
+
+    @Test
+    public void when_calculating_given_raggedAxes_then_matchesPairwiseLedoitWolf() {
+        int nDates = 60;
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(53L), 12, nDates);
+        CovarianceMatrix matrix = calculate(axes, true);
+
+        // Every entry and its error term over the pair's own shared dates, about the means over those dates.
+        int nAxes = axes.size();
+        double[][] data = new double[nAxes][nDates];
+        for (int i = 0; i < nAxes; i++) {
+            Arrays.fill(data[i], Double.NaN);
+            for (int k = 0; k < axes.get(i).getLength(); k++) {
+                data[i][(int)(axes.get(i).getTime(k) / 86400000L)] = axes.get(i).getDoubleValue(k);
+            }
+        }
+        double[][] sample = new double[nAxes][nAxes];
+        double[][] errors = new double[nAxes][nAxes];
+        double target = 0.0;
+        for (int i = 0; i < nAxes; i++) {
+            for (int j = 0; j < nAxes; j++) {
+                double n = 0.0;
+                double a = 0.0;
+                double b = 0.0;
+                for (int t = 0; t < nDates; t++) {
+                    if (!Double.isNaN(data[i][t]) && !Double.isNaN(data[j][t])) {
+                        n++;
+                        a += data[i][t];
+                        b += data[j][t];
+                    }
+                }
+                a /= n;
+                b /= n;
+                double products = 0.0;
+                double squares = 0.0;
+                for (int t = 0; t < nDates; t++) {
+                    if (!Double.isNaN(data[i][t]) && !Double.isNaN(data[j][t])) {
+                        double product = (data[i][t] - a) * (data[j][t] - b);
+                        products += product;
+                        squares += product * product;
+                    }
+                }
+                sample[i][j] = products / n;
+                errors[i][j] = (squares / n - sample[i][j] * sample[i][j]) / n;
+            }
+            target += sample[i][i] / nAxes;
+        }
+        double distance = 0.0;
+        double error = 0.0;
+        for (int i = 0; i < nAxes; i++) {
+            for (int j = 0; j < nAxes; j++) {
+                double deviation = sample[i][j] - (i == j ? target : 0.0);
+                distance += deviation * deviation;
+                error += errors[i][j];
+            }
+        }
+        double shrinkage = Math.min(error, distance) / distance;
+
+        assert Math.abs(matrix.getShrinkage() - shrinkage) < TOLERANCE : String.format("Shrinkage %1$f vs %2$f", matrix.getShrinkage(), shrinkage);
+        for (int i = 0; i < nAxes; i++) {
+            for (int j = 0; j < nAxes; j++) {
+                double expected = (1.0 - shrinkage) * sample[i][j] + (i == j ? shrinkage * target : 0.0);
+                assert Math.abs(matrix.getCovariance(i, j) - expected) < TOLERANCE : String.format("%1$d,%2$d : %3$f vs %4$f", i, j, matrix.getCovariance(i, j), expected);
+            }
+        }
+    }
+
+    private static CovarianceMatrix calculate(List<Axis> axes, boolean shrink) {
+        ForkJoinPool service = new ForkJoinPool(2);
+        try {
+            return new CovarianceMatrixCalculator(new NoopListener(), shrink, 4, 7, DotProductKernels.getDefault()).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static List<Axis> completeAxes(Random random, double[][] data) {
+        List<Axis> axes = new ArrayList<>(data.length);
+        for (int a = 0; a < data.length; a++) {
+            BigDecimal[] values = new BigDecimal[data[a].length];
+            Date[] dates = new Date[data[a].length];
+            for (int t = 0; t < values.length; t++) {
+                data[a][t] = 10.0 + (a % 3 + 1) * random.nextGaussian();
+                values[t] = BigDecimal.valueOf(data[a][t]);
+                dates[t] = new Date(t * 86400000L);
+            }
+            axes.add(new SimpleAxis(String.format("AXIS%1$d", a), values, dates));
+        }
+        return axes;
+    }
+
+    private static double naiveCovariance(Axis xAxis, Axis yAxis) {
+        PairMoments moments = DoubleCorrelationMatrixCalculatorImpl.FusedCorrelationCalculator.accumulate(xAxis, yAxis, new PairMoments());
+        return moments.getCoMoment() / (moments.getN() - 1);
+    }
+}
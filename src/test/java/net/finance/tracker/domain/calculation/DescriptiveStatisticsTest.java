@@ -2,6 +2,7 @@ package net.finance.tracker.domain.calculation;
 
 import net.finance.tracker.domain.axis.Axis;
 import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernels;
 import org.junit.Test;
 
 import java.math.BigDecimal;
@@ -28,4 +29,31 @@ public class DescriptiveStatisticsTest {
         assertThat(statistics.getMean(), equalTo(new BigDecimal(0)));
         assertThat(statistics.getStandardDeviation(), equalTo(new BigDecimal(1)));
     }
+
+    @Test
+    public void when_calculatingDoubleStatistics_given_easyData_calculatesCorrectAnswer() throws Exception {
+        BigDecimal[] data = new BigDecimal[] {
+                new BigDecimal(-1), new BigDecimal(1), new BigDecimal(0)};
+        Date[] dates = new Date[] {new Date(0), new Date(1), new Date(2)};
+        Axis axis = new SimpleAxis("TEST", data, dates);
+        DescriptiveStatistics statistics = new DescriptiveStatistics.DoubleDescriptiveStatisticBuilder(axis, DotProductKernels.getDefault()).call();
+
+        assertThat(statistics.getAxis(), equalTo(axis));
+        assertThat(statistics.getMean().compareTo(new BigDecimal(0)), equalTo(0));
+        assertThat(statistics.getStandardDeviation().compareTo(new BigDecimal(1)), equalTo(0));
+    }
+
+    @Test
+    public void when_calculatingDoubleStatistics_given_centredPanelColumn_calculatesCorrectAnswer() {
+        BigDecimal[] data = new BigDecimal[] {
+                new BigDecimal(9), new BigDecimal(11), new BigDecimal(10)};
+        Date[] dates = new Date[] {new Date(0), new Date(1), new Date(2)};
+        Axis axis = new SimpleAxis("TEST", data, dates);
+        // The missing date is stored as zero and left out of the count.
+        double[] centred = new double[] {-1.0, 0.0, 1.0, 0.0};
+        DescriptiveStatistics statistics = new DescriptiveStatistics.DoubleDescriptiveStatisticBuilder(axis, centred, 10.0, 3, DotProductKernels.getDefault()).call();
+
+        assertThat(statistics.getMean().compareTo(new BigDecimal(10)), equalTo(0));
+        assertThat(statistics.getStandardDeviation().compareTo(new BigDecimal(1)), equalTo(0));
+    }
 }
@@ -0,0 +1,112 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.CloseAxisAdapter;
+import net.finance.tracker.domain.axis.OpenAxisAdapter;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.io.scrapper.YahooFinanceFileStockScrapper;
+import net.finance.tracker.util.logging.NoopListener;
+import net.finance.tracker.util.pattern.Listener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DoubleCorrelationMatrixCalculatorTest {
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.000000001");
+
+    @Test
+    public void when_calculatingMatrix_given_easyInputs_then_returnExpectedResult() {
+        Listener<Exception> listener = new NoopListener();
+        Date[] dates = new Date[] {new Date(0), new Date(1)};
+        Axis positiveAxis = new SimpleAxis("POSITIVE", new BigDecimal[] {new BigDecimal(-1), new BigDecimal(1)}, dates);
+        Axis negativeAxis = new SimpleAxis("NEGATIVE", new BigDecimal[] {new BigDecimal(1), new BigDecimal(-1)}, dates);
+        CorrelationMatrixCalculator calculator = new DoubleCorrelationMatrixCalculatorImpl(listener);
+        ExecutorService service = Executors.newFixedThreadPool(1);
+
+        try {
+            CorrelationMatrix matrix = calculator.calculate(Arrays.asList(positiveAxis, negativeAxis), service);
+            assertThat(matrix.getCell(0, 0), nullValue());
+            assertEquals(matrix.getCell(0, 1), new BigDecimal(-1));
+            assertEquals(matrix.getCell(1, 0), new BigDecimal(-1));
+            assertThat(matrix.getCell(1, 1), nullValue());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_calculatingCorrelation_given_misMatchedDates_then_onlyIncludeMatchingDates() throws Exception {
+        Axis aAxis = new SimpleAxis("A",
+                new BigDecimal[] {new BigDecimal(1), new BigDecimal(2), new BigDecimal(100), new BigDecimal(3)},
+                new Date[] {new Date(0), new Date(1), new Date(2), new Date(3)});
+        Axis bAxis = new SimpleAxis("B",
+                new BigDecimal[] {new BigDecimal(2), new BigDecimal(4), new BigDecimal(6), new BigDecimal(-50)},
+                new Date[] {new Date(0), new Date(1), new Date(3), new Date(4)});
+
+        CorrelationMatrixCalculatorImpl.CorrelationResult result =
+                new DoubleCorrelationMatrixCalculatorImpl.FusedCorrelationCalculator(aAxis, bAxis).call();
+
+        assertThat(result.getSymbolX(), equalTo("A"));
+        assertThat(result.getSymbolY(), equalTo("B"));
+        assertEquals(result.getResult(), new BigDecimal(1));
+    }
+
+    @Test
+    public void when_calculatingMatrix_given_sampledData_then_matchesDecimalCalculator() throws Exception {
+        Listener<Exception> listener = new NoopListener();
+        Series barclays = new YahooFinanceFileStockScrapper("BARC.L", 0L, 1610407859L, listener).call();
+        Series other = new YahooFinanceFileStockScrapper("0H6I.IL", 0L, 1610407859L, listener).call();
+        List<Axis> axes = Arrays.asList(
+                relabel("BARC.L open", new OpenAxisAdapter(barclays)),
+                relabel("BARC.L close", new CloseAxisAdapter(barclays)),
+                relabel("0H6I.IL open", new OpenAxisAdapter(other)),
+                relabel("0H6I.IL close", new CloseAxisAdapter(other)));
+        CorrelationMatrixCalculator decimalCalculator = new CorrelationMatrixCalculatorImpl(listener, new AxisCleanerImpl(), MathContext.DECIMAL64);
+        CorrelationMatrixCalculator doubleCalculator = new DoubleCorrelationMatrixCalculatorImpl(listener);
+        ExecutorService service = Executors.newFixedThreadPool(2);
+
+        try {
+            CorrelationMatrix expected = decimalCalculator.calculate(axes, service);
+            CorrelationMatrix actual = doubleCalculator.calculate(axes, service);
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    if (x == y) {
+                        assertThat(actual.getCell(x, y), nullValue());
+                    } else {
+                        assertEquals(actual.getCell(x, y), expected.getCell(x, y));
+                    }
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private Axis relabel(String symbol, Axis axis) {
+        BigDecimal[] values = new BigDecimal[axis.getLength()];
+        Date[] dates = new Date[axis.getLength()];
+        for (int i = 0; i < axis.getLength(); i++) {
+            values[i] = axis.getValue(i);
+            dates[i] = axis.getDate(i);
+        }
+        return new SimpleAxis(symbol, values, dates);
+    }
+
+    private void assertEquals(BigDecimal actual, BigDecimal expected) {
+        BigDecimal lowerTolerance = expected.subtract(TOLERANCE);
+        BigDecimal higherTolerance = expected.add(TOLERANCE);
+        assert actual.compareTo(lowerTolerance) >= 0 : String.format("Actual %1$s is less than lower tolerance %2$s", actual, lowerTolerance);
+        assert actual.compareTo(higherTolerance) <= 0 : String.format("Actual %1$s is greater than higher tolerance %2$s", actual, higherTolerance);
+    }
+}
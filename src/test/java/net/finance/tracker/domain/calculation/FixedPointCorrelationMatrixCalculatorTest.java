@@ -0,0 +1,87 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.CloseAxisAdapter;
+import net.finance.tracker.domain.axis.OpenAxisAdapter;
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.StockSeries;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FixedPointCorrelationMatrixCalculatorTest {
+    @Test
+    public void when_calculating_given_differentThreadCounts_then_resultsAreIdentical() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(67L), 14, 160);
+        CorrelationMatrix single = calculate(axes, 1, 2);
+        CorrelationMatrix parallel = calculate(axes, 4, 5);
+        ForkJoinPool service = new ForkJoinPool(1);
+        CorrelationMatrix approximate;
+        try {
+            approximate = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+
+        for (int y = 0; y < axes.size(); y++) {
+            for (int x = 0; x < axes.size(); x++) {
+                assertThat(parallel.getCell(x, y), equalTo(single.getCell(x, y)));
+                if (x != y) {
+                    assert Math.abs(single.getCell(x, y).doubleValue() - approximate.getCorrelation(x, y)) < 0.000000001 : String.format("%1$d,%2$d differs from double precision", x, y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void when_calculating_given_exactLinearSeries_then_correlationIsExactlyOne() {
+        StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder("LIN");
+        Random random = new Random(71L);
+        for (int i = 0; i < 40; i++) {
+            BigDecimal open = BigDecimal.valueOf(1000 + random.nextInt(9000), 2);
+            BigDecimal close = open.multiply(BigDecimal.valueOf(2)).add(new BigDecimal("0.125"));
+            builder.addLine(new Date(i * 86400000L), open, open, open, close, close, 100L);
+        }
+        Series series = builder.build();
+
+        assertThat(series.getScale(), equalTo(3));
+        assertThat(series.getUnscaledOpen(0), equalTo(series.getOpen(0).movePointRight(3).longValueExact()));
+        CorrelationMatrix matrix = calculate(Arrays.<Axis>asList(new OpenAxisAdapter(series), new CloseAxisAdapter(series)), 2, 16);
+        assertThat(matrix.getCell(0, 1).compareTo(BigDecimal.ONE), equalTo(0));
+    }
+
+    @Test
+    public void when_accumulating_given_productsBeyond64Bits_then_matchesBigInteger() {
+        Random random = new Random(73L);
+        Int128 sum = new Int128();
+        BigInteger expected = BigInteger.ZERO;
+        for (int i = 0; i < 1000; i++) {
+            long a = random.nextLong() >> 2;
+            long b = random.nextLong() >> 2;
+            sum.addProduct(a, b);
+            sum.add(a);
+            expected = expected.add(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))).add(BigInteger.valueOf(a));
+        }
+        assertThat(sum.toBigInteger(), equalTo(expected));
+    }
+
+    private static CorrelationMatrix calculate(List<Axis> axes, int nThreads, int tileSize) {
+        ForkJoinPool service = new ForkJoinPool(nThreads);
+        try {
+            return new FixedPointCorrelationMatrixCalculatorImpl(new NoopListener(), MathContext.DECIMAL64, tileSize).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+    }
+}
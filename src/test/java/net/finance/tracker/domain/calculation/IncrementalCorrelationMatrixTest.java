@@ -0,0 +1,119 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IncrementalCorrelationMatrixTest {
+    private static final double TOLERANCE = 0.000000001;
+    private static final long DAY = 86400000L;
+
+    @Test
+    public void when_appendingBars_given_historicMatrix_then_matchesFullRecalculation() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(3L), 6, 300);
+        IncrementalCorrelationMatrix matrix = new IncrementalCorrelationMatrix.IncrementalCorrelationMatrixBuilder(truncate(axes, 0, 200)).build();
+        for (int day = 200; day < 300; day++) {
+            matrix.append(new Date(day * DAY), barFor(axes, day));
+        }
+
+        assertMatches(matrix, calculate(axes));
+    }
+
+    @Test
+    public void when_appendingBars_given_fixedWindow_then_matchesRecalculatedWindow() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(5L), 5, 300);
+        IncrementalCorrelationMatrix matrix = new IncrementalCorrelationMatrix.IncrementalCorrelationMatrixBuilder(truncate(axes, 0, 150), 90).build();
+        for (int day = 150; day < 300; day++) {
+            matrix.append(new Date(day * DAY), barFor(axes, day));
+        }
+
+        assertThat(matrix.getBarCount(), equalTo(90));
+        assertThat(matrix.getFirstDate(), equalTo(new Date(210 * DAY)));
+        assertMatches(matrix, calculate(truncate(axes, 210, 300)));
+    }
+
+    @Test
+    public void when_appendingBars_given_longWindowedHistoryEndingFlat_then_flatPairHasNoCorrelation() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(7L), 2, 20);
+        IncrementalCorrelationMatrix matrix = new IncrementalCorrelationMatrix.IncrementalCorrelationMatrixBuilder(axes, 20).build();
+        Random random = new Random(11L);
+        double price = 100.0;
+        for (int day = 20; day < 5000; day++) {
+            // A suspended stock repeats its last price for the final 40 bars.
+            if (day < 4960) {
+                price += random.nextGaussian();
+            }
+            matrix.append(new Date(day * DAY), new double[] {price, 100.0 + random.nextGaussian()});
+        }
+
+        assertThat(matrix.getBarCount(), equalTo(20));
+        assertThat(matrix.getCell(0, 1), nullValue());
+    }
+
+    private CorrelationMatrix calculate(List<Axis> axes) {
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        try {
+            return new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private void assertMatches(CorrelationMatrix actual, CorrelationMatrix expected) {
+        assertThat(actual.size(), equalTo(expected.size()));
+        for (int y = 0; y < expected.size(); y++) {
+            assertThat(actual.getAxisLabel(y), equalTo(expected.getAxisLabel(y)));
+            for (int x = 0; x < expected.size(); x++) {
+                if (x == y) {
+                    continue;
+                }
+                double difference = Math.abs(actual.getCell(x, y).doubleValue() - expected.getCell(x, y).doubleValue());
+                assert difference <= TOLERANCE : String.format("Cell %1$d,%2$d differs by %3$s", x, y, difference);
+            }
+        }
+    }
+
+    private Map<String, BigDecimal> barFor(List<Axis> axes, int day) {
+        Map<String, BigDecimal> bar = new HashMap<>();
+        for (Axis axis : axes) {
+            for (int i = 0; i < axis.getLength(); i++) {
+                if (axis.getDate(i).getTime() == day * DAY) {
+                    bar.put(axis.getSymbol(), axis.getValue(i));
+                }
+            }
+        }
+        return bar;
+    }
+
+    private List<Axis> truncate(List<Axis> axes, int firstDay, int stopDay) {
+        List<Axis> truncated = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            List<BigDecimal> values = new ArrayList<>();
+            List<Date> dates = new ArrayList<>();
+            for (int i = 0; i < axis.getLength(); i++) {
+                long time = axis.getDate(i).getTime();
+                if (time >= firstDay * DAY && time < stopDay * DAY) {
+                    values.add(axis.getValue(i));
+                    dates.add(axis.getDate(i));
+                }
+            }
+            truncated.add(new SimpleAxis(axis.getSymbol(), values.toArray(new BigDecimal[0]), dates.toArray(new Date[0])));
+        }
+        return truncated;
+    }
+}
@@ -0,0 +1,104 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LeadLagCalculatorTest {
+    private static final double TOLERANCE = 0.000000001;
+    private static final int MAX_LAG = 8;
+    private static final int MINIMUM_OVERLAP = 20;
+
+    @Test
+    public void when_calculating_given_laggedCopy_then_findsThePlantedLag() {
+        int nDates = 200;
+        Random random = new Random(59L);
+        double[] leader = new double[nDates];
+        for (int i = 0; i < nDates; i++) {
+            leader[i] = random.nextGaussian();
+        }
+        List<Axis> axes = new ArrayList<>();
+        axes.add(axis("LEADER", leader, 0, random));
+        axes.add(axis("FOLLOWER", leader, 5, random));
+
+        LeadLagMatrix matrix = calculate(axes);
+
+        assertThat(matrix.getLag(0, 1), equalTo(5));
+        assertThat(matrix.getLag(1, 0), equalTo(-5));
+        assert matrix.getCorrelation(0, 1) > 0.9 : String.format("Expected a strong peak, was %1$f", matrix.getCorrelation(0, 1));
+    }
+
+    @Test
+    public void when_calculating_given_missingDates_then_matchesDirectSearchOverLags() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(61L), 7, 90);
+        LeadLagMatrix matrix = calculate(axes);
+
+        for (int y = 0; y < axes.size(); y++) {
+            for (int x = y + 1; x < axes.size(); x++) {
+                int bestLag = 0;
+                double best = Double.NaN;
+                for (int lag = -MAX_LAG; lag <= MAX_LAG; lag++) {
+                    double correlation = laggedCorrelation(axes.get(y), axes.get(x), lag);
+                    if (!Double.isNaN(correlation) && (Double.isNaN(best) || Math.abs(correlation) > Math.abs(best))) {
+                        best = correlation;
+                        bestLag = lag;
+                    }
+                }
+                assertThat(matrix.getLag(y, x), equalTo(bestLag));
+                assert Math.abs(matrix.getCorrelation(y, x) - best) < TOLERANCE : String.format("%1$d,%2$d : %3$f vs %4$f", y, x, matrix.getCorrelation(y, x), best);
+            }
+        }
+    }
+
+    private static LeadLagMatrix calculate(List<Axis> axes) {
+        ForkJoinPool service = new ForkJoinPool(2);
+        try {
+            return new LeadLagCalculator(new NoopListener(), MAX_LAG, MINIMUM_OVERLAP, 3).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    // Correlation of a[t] with b[t + lag] over the day numbers both have; every date in these tests is a whole day.
+    private static double laggedCorrelation(Axis a, Axis b, int lag) {
+        PairMoments moments = new PairMoments();
+        for (int i = 0; i < a.getLength(); i++) {
+            long day = a.getDate(i).getTime() / 86400000L;
+            for (int j = 0; j < b.getLength(); j++) {
+                if (b.getDate(j).getTime() / 86400000L == day + lag) {
+                    moments.add(a.getDoubleValue(i), b.getDoubleValue(j));
+                }
+            }
+        }
+        if (moments.getN() < MINIMUM_OVERLAP) {
+            return Double.NaN;
+        }
+        try {
+            return moments.getCorrelation();
+        } catch (CanNotCalculateException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static Axis axis(String symbol, double[] source, int lag, Random random) {
+        int length = source.length - lag;
+        BigDecimal[] values = new BigDecimal[length];
+        Date[] dates = new Date[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = BigDecimal.valueOf(source[i] + random.nextGaussian() * 0.1);
+            dates[i] = new Date((i + lag) * 86400000L);
+        }
+        return new SimpleAxis(symbol, values, dates);
+    }
+}
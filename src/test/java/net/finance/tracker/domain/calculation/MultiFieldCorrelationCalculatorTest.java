@@ -0,0 +1,80 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.CloseAxisAdapter;
+import net.finance.tracker.domain.axis.HighAxisAdapter;
+import net.finance.tracker.domain.axis.LowAxisAdapter;
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesField;
+import net.finance.tracker.domain.series.StockSeries;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MultiFieldCorrelationCalculatorTest {
+    private static final double TOLERANCE = 0.000000001;
+
+    @Test
+    public void when_calculating_given_threeFields_then_eachMatchesItsSingleFieldRun() {
+        List<Series> series = randomSeries(new Random(79L), 9, 120);
+        ForkJoinPool service = new ForkJoinPool(2);
+        try {
+            Map<SeriesField, CorrelationMatrix> matrices = new MultiFieldCorrelationCalculator(new NoopListener(), 4)
+                    .calculate(series, EnumSet.of(SeriesField.HIGH, SeriesField.LOW, SeriesField.CLOSE), service);
+
+            assertThat(matrices.size(), equalTo(3));
+            DoubleCorrelationMatrixCalculatorImpl single = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener());
+            List<Axis> highs = new ArrayList<>();
+            List<Axis> lows = new ArrayList<>();
+            List<Axis> closes = new ArrayList<>();
+            for (Series s : series) {
+                highs.add(new HighAxisAdapter(s));
+                lows.add(new LowAxisAdapter(s));
+                closes.add(new CloseAxisAdapter(s));
+            }
+            assertMatches(matrices.get(SeriesField.HIGH), single.calculate(highs, service));
+            assertMatches(matrices.get(SeriesField.LOW), single.calculate(lows, service));
+            assertMatches(matrices.get(SeriesField.CLOSE), single.calculate(closes, service));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static void assertMatches(CorrelationMatrix actual, CorrelationMatrix expected) {
+        for (int y = 0; y < expected.size(); y++) {
+            assertThat(actual.getAxisLabel(y), equalTo(expected.getAxisLabel(y)));
+            for (int x = y + 1; x < expected.size(); x++) {
+                assert Math.abs(actual.getCorrelation(x, y) - expected.getCorrelation(x, y)) < TOLERANCE : String.format("%1$d,%2$d : %3$f vs %4$f", x, y, actual.getCorrelation(x, y), expected.getCorrelation(x, y));
+            }
+        }
+    }
+
+    private static List<Series> randomSeries(Random random, int nSeries, int nDates) {
+        List<Series> series = new ArrayList<>(nSeries);
+        for (int s = 0; s < nSeries; s++) {
+            StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder(String.format("STOCK%1$d", s));
+            for (int i = 0; i < nDates; i++) {
+                if (random.nextInt(10) > 0) {
+                    BigDecimal open = BigDecimal.valueOf(100 + random.nextGaussian());
+                    BigDecimal close = BigDecimal.valueOf(100 + random.nextGaussian());
+                    BigDecimal high = open.max(close).add(BigDecimal.valueOf(Math.abs(random.nextGaussian())));
+                    BigDecimal low = open.min(close).subtract(BigDecimal.valueOf(Math.abs(random.nextGaussian())));
+                    builder.addLine(new Date(i * 86400000L), open, high, low, close, close, 1000L);
+                }
+            }
+            series.add(builder.build());
+        }
+        return series;
+    }
+}
@@ -0,0 +1,75 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PackedCorrelationMatrixTest {
+    @Test
+    public void when_pairIndex_given_upperTriangle_then_coversEveryCellOnce() {
+        int size = 7;
+        long expected = 0;
+        for (int x = 0; x < size; x++) {
+            for (int y = x + 1; y < size; y++) {
+                assertThat(PackedCorrelationMatrix.pairIndex(size, x, y), equalTo(expected++));
+            }
+        }
+        assertThat(PackedCorrelationMatrix.pairCount(size), equalTo(expected));
+    }
+
+    @Test
+    public void when_set_given_pair_then_cellIsSymmetricAndRowsAgree() {
+        PackedCorrelationMatrix matrix = new PackedCorrelationMatrix(Arrays.asList("A", "B", "C", "D"));
+        matrix.set(1, 3, 0.5);
+        matrix.set(2, 0, -0.25);
+
+        assertThat(matrix.getCell(1, 3), equalTo(BigDecimal.valueOf(0.5)));
+        assertThat(matrix.getCell(3, 1), equalTo(BigDecimal.valueOf(0.5)));
+        assertThat(matrix.getCell(0, 2), equalTo(BigDecimal.valueOf(-0.25)));
+        assertThat(matrix.getCell(2, 2), nullValue());
+        assertThat(matrix.getCell(0, 1), nullValue());
+
+        for (int y = 0; y < matrix.size(); y++) {
+            double[] row = matrix.getRow(y);
+            double[] column = matrix.getColumn(y);
+            for (int x = 0; x < matrix.size(); x++) {
+                assertThat(Double.compare(row[x], matrix.getCorrelation(x, y)), equalTo(0));
+                assertThat(Double.compare(column[x], matrix.getCorrelation(y, x)), equalTo(0));
+            }
+        }
+    }
+
+    @Test
+    public void when_calculating_given_doubleAndPanelEngines_then_packedRowsMatch() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(9L), 12, 250);
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        try {
+            CorrelationMatrix fused = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener(), 5).calculate(axes, service);
+            CorrelationMatrix panel = new PanelCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+            for (int y = 0; y < axes.size(); y++) {
+                double[] fusedRow = fused.getRow(y);
+                double[] panelRow = panel.getRow(y);
+                for (int x = 0; x < axes.size(); x++) {
+                    if (x == y) {
+                        assert Double.isNaN(fusedRow[x]) && Double.isNaN(panelRow[x]) : "Diagonal should be empty";
+                    } else {
+                        assert Math.abs(fusedRow[x] - panelRow[x]) < 0.000000001 : String.format("%1$d,%2$d : %3$f vs %4$f", x, y, fusedRow[x], panelRow[x]);
+                    }
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+}
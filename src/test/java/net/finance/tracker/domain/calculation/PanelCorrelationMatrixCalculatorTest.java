@@ -0,0 +1,110 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.domain.calculation.kernel.DotProductKernels;
+import net.finance.tracker.util.logging.NoopListener;
+import net.finance.tracker.util.pattern.Listener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PanelCorrelationMatrixCalculatorTest {
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.000000001");
+
+    @Test
+    public void when_calculatingMatrix_given_raggedAxes_then_matchesPairwiseCalculator() {
+        Listener<Exception> listener = new NoopListener();
+        List<Axis> axes = randomAxes(new Random(42L), 11, 300);
+        // Small blocks so the test crosses tile and row block boundaries.
+        CorrelationMatrixCalculator panelCalculator = new PanelCorrelationMatrixCalculatorImpl(listener, 4, 64, DotProductKernels.getDefault());
+        CorrelationMatrixCalculator pairwiseCalculator = new DoubleCorrelationMatrixCalculatorImpl(listener);
+        ExecutorService service = Executors.newFixedThreadPool(3);
+
+        try {
+            CorrelationMatrix expected = pairwiseCalculator.calculate(axes, service);
+            CorrelationMatrix actual = panelCalculator.calculate(axes, service);
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    if (x == y) {
+                        assertThat(actual.getCell(x, y), nullValue());
+                    } else {
+                        assertEquals(actual.getCell(x, y), expected.getCell(x, y));
+                    }
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_calculatingMatrix_given_axisFlatOverTheOverlap_then_pairHasNoCorrelation() {
+        Random random = new Random(29L);
+        int nDates = 200;
+        ExecutorService service = Executors.newFixedThreadPool(1);
+        try {
+            for (int trial = 0; trial < 20; trial++) {
+                BigDecimal[] aValues = new BigDecimal[nDates];
+                Date[] aDates = new Date[nDates];
+                BigDecimal[] bValues = new BigDecimal[nDates / 2];
+                Date[] bDates = new Date[nDates / 2];
+                BigDecimal flat = BigDecimal.valueOf(100 + random.nextGaussian());
+                for (int i = 0; i < nDates; i++) {
+                    // The first axis only moves before the second axis starts, so it is flat over their overlap.
+                    aValues[i] = i < nDates / 2 ? BigDecimal.valueOf(100 + 10 * random.nextGaussian()) : flat;
+                    aDates[i] = new Date(i * 86400000L);
+                    if (i >= nDates / 2) {
+                        bValues[i - nDates / 2] = BigDecimal.valueOf(100 + random.nextGaussian());
+                        bDates[i - nDates / 2] = aDates[i];
+                    }
+                }
+                List<Axis> axes = new ArrayList<>();
+                axes.add(new SimpleAxis("FLAT", aValues, aDates));
+                axes.add(new SimpleAxis("MOVING", bValues, bDates));
+                CorrelationMatrix matrix = new PanelCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+                assertThat(String.format("Trial %1$d", trial), matrix.getCell(0, 1), nullValue());
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    static List<Axis> randomAxes(Random random, int nAxes, int nDates) {
+        double[] market = new double[nDates];
+        for (int i = 0; i < nDates; i++) {
+            market[i] = random.nextGaussian();
+        }
+        List<Axis> axes = new ArrayList<>(nAxes);
+        for (int a = 0; a < nAxes; a++) {
+            double beta = random.nextDouble() * 2 - 1;
+            List<BigDecimal> values = new ArrayList<>();
+            List<Date> dates = new ArrayList<>();
+            for (int i = 0; i < nDates; i++) {
+                // Every axis skips a different selection of dates.
+                if (random.nextInt(10) > 0) {
+                    values.add(BigDecimal.valueOf(100 + beta * market[i] + random.nextGaussian()));
+                    dates.add(new Date(i * 86400000L));
+                }
+            }
+            axes.add(new SimpleAxis(String.format("AXIS%1$d", a), values.toArray(new BigDecimal[0]), dates.toArray(new Date[0])));
+        }
+        return axes;
+    }
+
+    private void assertEquals(BigDecimal actual, BigDecimal expected) {
+        BigDecimal lowerTolerance = expected.subtract(TOLERANCE);
+        BigDecimal higherTolerance = expected.add(TOLERANCE);
+        assert actual.compareTo(lowerTolerance) >= 0 : String.format("Actual %1$s is less than lower tolerance %2$s", actual, lowerTolerance);
+        assert actual.compareTo(higherTolerance) <= 0 : String.format("Actual %1$s is greater than higher tolerance %2$s", actual, higherTolerance);
+    }
+}
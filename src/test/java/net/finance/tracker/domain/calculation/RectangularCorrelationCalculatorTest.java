@@ -0,0 +1,66 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RectangularCorrelationCalculatorTest {
+    @Test
+    public void when_splittingRectangle_given_raggedSizes_then_pairCountIsEveryCell() {
+        CorrelationTileScheduler scheduler = new CorrelationTileScheduler(3, new NoopListener());
+        int rows = 7;
+        int columns = 5;
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(3L), rows + columns, 20);
+        RectangularCorrelationMatrix matrix = new RectangularCorrelationMatrix(labels(axes.subList(0, rows)), labels(axes.subList(rows, rows + columns)));
+        int pairs = 0;
+        for (CorrelationTile tile : scheduler.splitRectangle(rows, columns, (xStart, xStop, yStart, yStop) ->
+                new RectangularCorrelationCalculator.RectangularTile(axes.subList(0, rows), axes.subList(rows, rows + columns), matrix, new NoopListener(), xStart, xStop, yStart, yStop))) {
+            pairs += tile.getPairCount();
+        }
+        assertThat(pairs, equalTo(rows * columns));
+    }
+
+    @Test
+    public void when_calculating_given_stocksAndRates_then_matchesSquareMatrixCells() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(18L), 23, 150);
+        int rows = 17;
+        List<Axis> stocks = axes.subList(0, rows);
+        List<Axis> rates = axes.subList(rows, axes.size());
+        ExecutorService service = new ForkJoinPool(2);
+        try {
+            CorrelationMatrix square = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+            RectangularCorrelationMatrix rectangle = new RectangularCorrelationCalculator(new NoopListener(), 4).calculate(stocks, rates, service);
+
+            assertThat(rectangle.getRowCount(), equalTo(stocks.size()));
+            assertThat(rectangle.getColumnCount(), equalTo(rates.size()));
+            for (int column = 0; column < rates.size(); column++) {
+                assertThat(rectangle.getColumnLabel(column), equalTo(rates.get(column).getSymbol()));
+                double[] values = rectangle.getColumn(column);
+                for (int row = 0; row < stocks.size(); row++) {
+                    double expected = square.getCorrelation(rows + column, row);
+                    assert Math.abs(values[row] - expected) < 0.000000001 : String.format("%1$d,%2$d : %3$f vs %4$f", row, column, values[row], expected);
+                    assertThat(Double.compare(rectangle.getRow(row)[column], values[row]), equalTo(0));
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static List<String> labels(List<Axis> axes) {
+        List<String> labels = new ArrayList<>();
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,71 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ResumableCorrelationMatrixCalculatorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void when_resuming_given_journalCutMidRecord_then_onlyMissingTilesAreRecalculated() throws Exception {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(20L), 19, 80);
+        Path journal = folder.getRoot().toPath().resolve("matrix.journal");
+        int tileSize = 4;
+        int tileCount = 15;
+        ExecutorService service = new ForkJoinPool(2);
+        try {
+            CorrelationMatrix expected = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener(), tileSize).calculate(axes, service);
+            new ResumableCorrelationMatrixCalculatorImpl(new NoopListener(), journal, tileSize).calculate(axes, service);
+            try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "rw")) {
+                file.setLength(file.length() * 2 / 3);
+            }
+            int journaled;
+            try (TileJournal opened = TileJournal.open(journal, TileJournal.hash(axes), axes.size(), tileSize, tileCount)) {
+                journaled = opened.getCompletedCount();
+            }
+            assert journaled > 0 && journaled < tileCount : String.format("%1$d of %2$d tiles survived", journaled, tileCount);
+
+            CorrelationMatrix actual = new ResumableCorrelationMatrixCalculatorImpl(new NoopListener(), journal, tileSize).calculate(axes, service);
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    assertThat(Double.compare(actual.getCorrelation(x, y), expected.getCorrelation(x, y)), equalTo(0));
+                }
+            }
+            try (TileJournal opened = TileJournal.open(journal, TileJournal.hash(axes), axes.size(), tileSize, tileCount)) {
+                assertThat(opened.getCompletedCount(), equalTo(tileCount));
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_opening_given_differentAxes_then_journalStartsOver() throws Exception {
+        Path journal = folder.getRoot().toPath().resolve("matrix.journal");
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(21L), 8, 40);
+        List<Axis> otherAxes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(22L), 8, 40);
+        ExecutorService service = new ForkJoinPool(2);
+        try {
+            new ResumableCorrelationMatrixCalculatorImpl(new NoopListener(), journal, 4).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+        try (TileJournal opened = TileJournal.open(journal, TileJournal.hash(otherAxes), 8, 4, 3)) {
+            assertThat(opened.getCompletedCount(), equalTo(0));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RollingCorrelationCalculatorTest {
+    private static final double TOLERANCE = 0.00001;
+
+    @Test
+    public void when_calculatingRollingCorrelations_given_raggedAxes_then_everyWindowMatchesDirectCalculation() throws Exception {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(13L), 5, 200);
+        int[] windows = new int[] {5, 30};
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        RollingCorrelationCube cube;
+        try {
+            cube = new RollingCorrelationCalculator(new NoopListener(), 2).calculate(axes, windows, service);
+        } finally {
+            service.shutdown();
+        }
+
+        assertThat(cube.getPairCount(), equalTo(10));
+        for (int w = 0; w < windows.length; w++) {
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = y + 1; x < axes.size(); x++) {
+                    float[] series = cube.getSeries(w, x, y);
+                    int populated = 0;
+                    for (int row = 0; row < series.length; row++) {
+                        Double expected = directCorrelation(axes.get(y), axes.get(x), cube.getCalendar().getTime(row), windows[w]);
+                        assertThat(Float.compare(cube.getCorrelation(w, x, y, row), series[row]), equalTo(0));
+                        if (expected == null) {
+                            assert Float.isNaN(series[row]) : String.format("Row %1$d should be empty but was %2$f", row, series[row]);
+                        } else {
+                            populated++;
+                            assert Math.abs(series[row] - expected) <= TOLERANCE : String.format("Row %1$d was %2$f expected %3$f", row, series[row], expected);
+                        }
+                    }
+                    assert populated > 0 : "Expected some populated rows";
+                }
+            }
+        }
+    }
+
+    @Test
+    public void when_calculatingRollingCorrelations_given_longHistoryEndingFlat_then_flatWindowsAreEmpty() {
+        int nDates = 5000;
+        int window = 20;
+        ExecutorService service = Executors.newFixedThreadPool(2);
+        try {
+            for (long seed = 0; seed < 20; seed++) {
+                Random random = new Random(seed);
+                BigDecimal[] stock = new BigDecimal[nDates];
+                BigDecimal[] other = new BigDecimal[nDates];
+                Date[] dates = new Date[nDates];
+                double price = 100.0;
+                for (int i = 0; i < nDates; i++) {
+                    // A suspended stock repeats its last price for the final 40 dates.
+                    if (i < nDates - 40) {
+                        price += random.nextGaussian();
+                    }
+                    stock[i] = BigDecimal.valueOf(price);
+                    other[i] = BigDecimal.valueOf(100.0 + random.nextGaussian());
+                    dates[i] = new Date(i * 86400000L);
+                }
+                List<Axis> axes = Arrays.asList(new SimpleAxis("STOCK", stock, dates), new SimpleAxis("OTHER", other, dates));
+                RollingCorrelationCube cube = new RollingCorrelationCalculator(new NoopListener()).calculate(axes, new int[] {window}, service);
+
+                float[] series = cube.getSeries(0, 0, 1);
+                for (int row = nDates - 40 + window - 1; row < nDates; row++) {
+                    assert Float.isNaN(series[row]) : String.format("Seed %1$d row %2$d should be empty but was %3$f", seed, row, series[row]);
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_calculatingRollingCorrelations_given_lateOverlap_then_onlyTheOverlapIsStored() {
+        int nDates = 300;
+        Random random = new Random(17L);
+        BigDecimal[] early = new BigDecimal[nDates];
+        Date[] earlyDates = new Date[nDates];
+        BigDecimal[] late = new BigDecimal[50];
+        Date[] lateDates = new Date[50];
+        for (int i = 0; i < nDates; i++) {
+            early[i] = BigDecimal.valueOf(100 + random.nextGaussian());
+            earlyDates[i] = new Date(i * 86400000L);
+            if (i >= nDates - 50) {
+                late[i - (nDates - 50)] = BigDecimal.valueOf(100 + random.nextGaussian());
+                lateDates[i - (nDates - 50)] = earlyDates[i];
+            }
+        }
+        List<Axis> axes = Arrays.asList(new SimpleAxis("EARLY", early, earlyDates), new SimpleAxis("LATE", late, lateDates));
+        ExecutorService service = Executors.newFixedThreadPool(1);
+        RollingCorrelationCube cube;
+        try {
+            cube = new RollingCorrelationCalculator(new NoopListener()).calculate(axes, new int[] {10, 60}, service);
+        } finally {
+            service.shutdown();
+        }
+
+        // The first full 10 day window ends on the 10th shared date; the 60 day window never fills.
+        assertThat(cube.getFirstRow(0, 0, 1), equalTo(nDates - 50 + 9));
+        assertThat(cube.getSpanLength(0, 0, 1), equalTo(41));
+        assertThat(cube.getSpanLength(1, 0, 1), equalTo(0));
+        assert Float.isNaN(cube.getCorrelation(0, 0, 1, 0)) : "Rows before the span should be NaN";
+        assert !Float.isNaN(cube.getCorrelation(0, 0, 1, nDates - 1)) : "The last row should be populated";
+        assert Float.isNaN(cube.getCorrelation(1, 0, 1, nDates - 1)) : "An unfilled window should be NaN";
+        assertThat(cube.getStoredCount(), equalTo(41L));
+    }
+
+    // Correlation of the last window shared observations ending exactly at time, or null when there is none.
+    private Double directCorrelation(Axis a, Axis b, long time, int window) throws Exception {
+        List<double[]> shared = new ArrayList<>();
+        boolean endsAtTime = false;
+        for (int i = 0; i < a.getLength(); i++) {
+            long aTime = a.getDate(i).getTime();
+            if (aTime > time) {
+                break;
+            }
+            for (int j = 0; j < b.getLength(); j++) {
+                if (b.getDate(j).getTime() == aTime) {
+                    shared.add(new double[] {a.getDoubleValue(i), b.getDoubleValue(j)});
+                    endsAtTime = aTime == time;
+                }
+            }
+        }
+        if (!endsAtTime || shared.size() < window) {
+            return null;
+        }
+        PairMoments moments = new PairMoments();
+        for (double[] pair : shared.subList(shared.size() - window, shared.size())) {
+            moments.add(pair[0], pair[1]);
+        }
+        return moments.getCorrelation();
+    }
+}
@@ -0,0 +1,74 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ShardedCorrelationMatrixCalculatorTest {
+    @Test
+    public void when_sharding_given_threeWorkers_then_everyTileIsAssignedOnceAndAxesAreSubset() {
+        ShardedCorrelationMatrixCalculatorImpl calculator = new ShardedCorrelationMatrixCalculatorImpl(new NoopListener(), 3, 4, Collections.emptyList());
+        int size = 30;
+        List<List<CorrelationTileScheduler.TileBounds>> shards = calculator.shard(size);
+
+        assertThat(shards.size(), equalTo(3));
+        long pairs = 0;
+        for (List<CorrelationTileScheduler.TileBounds> shard : shards) {
+            for (CorrelationTileScheduler.TileBounds tile : shard) {
+                pairs += tile.getPairCount();
+            }
+        }
+        assertThat(pairs, equalTo(PackedCorrelationMatrix.pairCount(size)));
+        BitSet lastShardAxes = ShardedCorrelationMatrixCalculatorImpl.axesOf(shards.get(2));
+        assert lastShardAxes.cardinality() < size : "The last shard should not need the first rows";
+    }
+
+    @Test
+    public void when_calculating_given_twoWorkerProcesses_then_matchesInProcessCalculation() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(19L), 21, 120);
+        ExecutorService service = new ForkJoinPool(2);
+        try {
+            CorrelationMatrix expected = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+            CorrelationMatrix actual = new ShardedCorrelationMatrixCalculatorImpl(new NoopListener(), 2, 4, Collections.emptyList()).calculate(axes, service);
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    assertThat(Double.compare(actual.getCorrelation(x, y), expected.getCorrelation(x, y)), equalTo(0));
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void when_calculating_given_workersThatFail_then_theirTilesAreCalculatedInProcess() {
+        List<Axis> axes = PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(23L), 13, 80);
+        List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService service = new ForkJoinPool(2);
+        try {
+            CorrelationMatrix expected = new DoubleCorrelationMatrixCalculatorImpl(new NoopListener()).calculate(axes, service);
+            // The worker JVMs refuse to start with an unknown option.
+            CorrelationMatrix actual = new ShardedCorrelationMatrixCalculatorImpl(failures::add, 2, 4, Collections.singletonList("-XX:+NoSuchWorkerOption"))
+                    .calculate(axes, service);
+            for (int y = 0; y < axes.size(); y++) {
+                for (int x = 0; x < axes.size(); x++) {
+                    assertThat(Double.compare(actual.getCorrelation(x, y), expected.getCorrelation(x, y)), equalTo(0));
+                }
+            }
+            assert !failures.isEmpty() : "The worker failures should still be reported";
+        } finally {
+            service.shutdown();
+        }
+    }
+}
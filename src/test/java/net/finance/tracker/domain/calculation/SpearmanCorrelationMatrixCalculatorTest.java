@@ -0,0 +1,116 @@
+package net.finance.tracker.domain.calculation;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class SpearmanCorrelationMatrixCalculatorTest {
+    private static final double TOLERANCE = 0.000000001;
+
+    @Test
+    public void when_calculating_given_tiedAndMisalignedAxes_then_matchesRankingEachPair() {
+        List<Axis> axes = new ArrayList<>();
+        for (Axis axis : PanelCorrelationMatrixCalculatorTest.randomAxes(new Random(29L), 9, 120)) {
+            axes.add(rounded(axis));
+        }
+        // A repeated axis has exactly the same dates as its original, so that pair takes the precomputed rank path.
+        axes.add(axes.get(0));
+
+        CorrelationMatrix matrix = calculate(axes);
+        for (int y = 0; y < axes.size(); y++) {
+            for (int x = y + 1; x < axes.size(); x++) {
+                double expected = naiveSpearman(axes.get(x), axes.get(y));
+                double actual = matrix.getCorrelation(x, y);
+                assert Math.abs(expected - actual) < TOLERANCE : String.format("%1$d,%2$d : %3$f vs %4$f", x, y, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void when_calculating_given_monotoneTransform_then_correlationIsOne() {
+        int nDates = 50;
+        BigDecimal[] values = new BigDecimal[nDates];
+        BigDecimal[] cubes = new BigDecimal[nDates];
+        Date[] dates = new Date[nDates];
+        Random random = new Random(31L);
+        for (int i = 0; i < nDates; i++) {
+            values[i] = BigDecimal.valueOf(random.nextGaussian());
+            cubes[i] = values[i].pow(3);
+            dates[i] = new Date(i * 86400000L);
+        }
+        CorrelationMatrix matrix = calculate(Arrays.<Axis>asList(new SimpleAxis("X", values, dates), new SimpleAxis("CUBE", cubes, dates)));
+
+        assert Math.abs(matrix.getCorrelation(0, 1) - 1.0) < TOLERANCE : String.format("Expected 1 but was %1$f", matrix.getCorrelation(0, 1));
+    }
+
+    private static CorrelationMatrix calculate(List<Axis> axes) {
+        ForkJoinPool service = new ForkJoinPool(2);
+        try {
+            return new SpearmanCorrelationMatrixCalculatorImpl(new NoopListener(), 4).calculate(axes, service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    // Coarse rounding so many values tie.
+    private static Axis rounded(Axis axis) {
+        BigDecimal[] values = new BigDecimal[axis.getLength()];
+        Date[] dates = new Date[axis.getLength()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = axis.getValue(i).setScale(0, RoundingMode.HALF_UP);
+            dates[i] = axis.getDate(i);
+        }
+        return new SimpleAxis(axis.getSymbol(), values, dates);
+    }
+
+    private static double naiveSpearman(Axis xAxis, Axis yAxis) {
+        List<Double> xValues = new ArrayList<>();
+        List<Double> yValues = new ArrayList<>();
+        for (int i = 0; i < xAxis.getLength(); i++) {
+            for (int j = 0; j < yAxis.getLength(); j++) {
+                if (xAxis.getDate(i).equals(yAxis.getDate(j))) {
+                    xValues.add(xAxis.getDoubleValue(i));
+                    yValues.add(yAxis.getDoubleValue(j));
+                }
+            }
+        }
+        double[] xRanks = naiveRanks(xValues);
+        double[] yRanks = naiveRanks(yValues);
+        PairMoments moments = new PairMoments();
+        for (int i = 0; i < xRanks.length; i++) {
+            moments.add(xRanks[i], yRanks[i]);
+        }
+        try {
+            return moments.getCorrelation();
+        } catch (CanNotCalculateException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double[] naiveRanks(List<Double> values) {
+        double[] ranks = new double[values.size()];
+        for (int i = 0; i < ranks.length; i++) {
+            int below = 0;
+            int equal = 0;
+            for (double other : values) {
+                if (other < values.get(i)) {
+                    below++;
+                } else if (other == values.get(i)) {
+                    equal++;
+                }
+            }
+            ranks[i] = below + (equal + 1) / 2.0;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,47 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+import java.util.Random;
+
+/*
+Not a unit test - run by hand to compare the kernels on the current machine, e.g.
+java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes net.finance.tracker.domain.calculation.kernel.DotProductKernelBenchmark
+ */
+public class DotProductKernelBenchmark {
+    private static final int LENGTH = 8192;
+    private static final int ITERATIONS = 20000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(1L);
+        double[] x = DotProductKernelTest.randomColumn(random, LENGTH);
+        double[] y = DotProductKernelTest.randomColumn(random, LENGTH);
+        double[] xMask = DotProductKernelTest.randomMask(random, LENGTH);
+        double[] yMask = DotProductKernelTest.randomMask(random, LENGTH);
+
+        DotProductKernel[] kernels = new DotProductKernel[] {DotProductKernels.getScalar(), DotProductKernels.getDefault()};
+        for (int round = 0; round < ROUNDS; round++) {
+            for (DotProductKernel kernel : kernels) {
+                double checksum = 0.0;
+                long start = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    checksum += kernel.dot(x, y, 0, LENGTH);
+                }
+                long dotTime = System.nanoTime() - start;
+
+                double[] moments = new double[DotProductKernel.MOMENTS];
+                start = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    kernel.maskedMoments(x, xMask, y, yMask, 0, LENGTH, moments, 0);
+                }
+                long momentsTime = System.nanoTime() - start;
+                checksum += moments[DotProductKernel.PRODUCTS];
+
+                System.out.println(String.format("Round %1$d %2$s: dot %3$.3f ns/element, masked moments %4$.3f ns/element (checksum %5$f)",
+                        round, kernel.getName(),
+                        dotTime / (double)(ITERATIONS * (long)LENGTH),
+                        momentsTime / (double)(ITERATIONS * (long)LENGTH),
+                        checksum));
+            }
+        }
+    }
+}
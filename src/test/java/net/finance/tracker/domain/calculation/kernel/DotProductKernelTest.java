@@ -0,0 +1,53 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class DotProductKernelTest {
+    private static final double TOLERANCE = 0.000000001;
+
+    @Test
+    public void when_calculating_given_defaultKernel_then_matchesScalarKernel() {
+        DotProductKernel expected = DotProductKernels.getScalar();
+        DotProductKernel actual = DotProductKernels.getDefault();
+        Random random = new Random(11L);
+        // Odd lengths and offsets so the vector tails are exercised.
+        double[] x = randomColumn(random, 1037);
+        double[] y = randomColumn(random, 1037);
+        double[] xMask = randomMask(random, 1037);
+        double[] yMask = randomMask(random, 1037);
+
+        assertEquals(actual.sum(x, 3, 1030), expected.sum(x, 3, 1030));
+        assertEquals(actual.sumOfSquaredDeviations(x, 0.25, 3, 1030), expected.sumOfSquaredDeviations(x, 0.25, 3, 1030));
+        assertEquals(actual.dot(x, y, 3, 1030), expected.dot(x, y, 3, 1030));
+
+        double[] expectedMoments = new double[DotProductKernel.MOMENTS + 1];
+        double[] actualMoments = new double[DotProductKernel.MOMENTS + 1];
+        expected.maskedMoments(x, xMask, y, yMask, 5, 1029, expectedMoments, 1);
+        actual.maskedMoments(x, xMask, y, yMask, 5, 1029, actualMoments, 1);
+        for (int i = 0; i < expectedMoments.length; i++) {
+            assertEquals(actualMoments[i], expectedMoments[i]);
+        }
+    }
+
+    static double[] randomColumn(Random random, int length) {
+        double[] column = new double[length];
+        for (int i = 0; i < length; i++) {
+            column[i] = random.nextGaussian();
+        }
+        return column;
+    }
+
+    static double[] randomMask(Random random, int length) {
+        double[] mask = new double[length];
+        for (int i = 0; i < length; i++) {
+            mask[i] = random.nextInt(8) == 0 ? 0.0 : 1.0;
+        }
+        return mask;
+    }
+
+    private void assertEquals(double actual, double expected) {
+        assert Math.abs(actual - expected) <= TOLERANCE : String.format("Actual %1$s differs from expected %2$s", actual, expected);
+    }
+}
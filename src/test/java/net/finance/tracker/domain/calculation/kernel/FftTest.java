@@ -0,0 +1,41 @@
+package net.finance.tracker.domain.calculation.kernel;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class FftTest {
+    private static final double TOLERANCE = 0.000000001;
+
+    @Test
+    public void when_transforming_given_randomSequence_then_matchesDirectDftAndInverts() {
+        int size = 64;
+        Random random = new Random(53L);
+        double[] re = new double[size];
+        double[] im = new double[size];
+        for (int i = 0; i < size; i++) {
+            re[i] = random.nextGaussian();
+            im[i] = random.nextGaussian();
+        }
+        double[] originalRe = re.clone();
+        double[] originalIm = im.clone();
+
+        Fft fft = new Fft(size);
+        fft.transform(re, im, false);
+        for (int k = 0; k < size; k++) {
+            double expectedRe = 0.0;
+            double expectedIm = 0.0;
+            for (int t = 0; t < size; t++) {
+                double angle = -2 * Math.PI * k * t / size;
+                expectedRe += originalRe[t] * Math.cos(angle) - originalIm[t] * Math.sin(angle);
+                expectedIm += originalRe[t] * Math.sin(angle) + originalIm[t] * Math.cos(angle);
+            }
+            assert Math.abs(re[k] - expectedRe) < TOLERANCE && Math.abs(im[k] - expectedIm) < TOLERANCE : String.format("Bin %1$d differs", k);
+        }
+
+        fft.transform(re, im, true);
+        for (int t = 0; t < size; t++) {
+            assert Math.abs(re[t] - originalRe[t]) < TOLERANCE && Math.abs(im[t] - originalIm[t]) < TOLERANCE : String.format("Sample %1$d did not invert", t);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.finance.tracker.domain.series;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SeriesColumnsTest {
+    @Test
+    public void when_building_given_risingScale_then_earlierRowsAreRescaled() throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd");
+        StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder("TEST");
+        builder.addLine(format.parse("20210104"), new BigDecimal("1.5"), new BigDecimal("2"), new BigDecimal("1"), new BigDecimal("1.5"), new BigDecimal("1.5"), 100L);
+        builder.addLine(format.parse("20210105"), new BigDecimal("1.25"), new BigDecimal("2.000"), new BigDecimal("1.125"), new BigDecimal("1.75"), new BigDecimal("1.75"), 200L);
+        StockSeries series = (StockSeries)builder.build();
+
+        assertThat(series.getScale(), equalTo(3));
+        assertThat(series.getUnscaledOpen(0), equalTo(1500L));
+        assertThat(series.getUnscaledLow(1), equalTo(1125L));
+        assertThat(series.getOpen(0).compareTo(new BigDecimal("1.5")), equalTo(0));
+        assertThat(series.getHigh(1).compareTo(new BigDecimal("2")), equalTo(0));
+        assertThat(series.getDate(0), equalTo(format.parse("20210104")));
+        assertThat(series.getDate(1), equalTo(format.parse("20210105")));
+        assertThat(series.getVolume(1), equalTo(200L));
+        assertThat(series.getVolumes()[0], equalTo(100L));
+    }
+
+    @Test
+    public void when_building_given_priceWithoutExactLong_then_fallsBackToDoubles() {
+        FXSeries.FXSeriesBuilder builder = new FXSeries.FXSeriesBuilder("EURUSD=X");
+        builder.addRow(new Date(0L), new BigDecimal("1.1"), new BigDecimal("1.2"), new BigDecimal("1.3"), new BigDecimal("1.0"), new BigDecimal("1.2"));
+        builder.addRow(new Date(86400000L), new BigDecimal("1.1234567890123456789"), new BigDecimal("1.2"), new BigDecimal("1.3"), new BigDecimal("1.0"), new BigDecimal("1.2"));
+        FXSeries series = builder.build();
+
+        assertThat(series.getScale(), equalTo(SeriesColumns.NO_SCALE));
+        assertThat(series.getClose(0).compareTo(new BigDecimal("1.2")), equalTo(0));
+        assertThat(series.getDoubleValue(SeriesField.OPEN, 1), equalTo(1.1234567890123457));
+    }
+
+    @Test
+    public void when_readingInBulk_given_columnarSeries_then_matchesElementGetters() {
+        StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder("BULK");
+        for (int i = 0; i < 1000; i++) {
+            BigDecimal price = BigDecimal.valueOf(10000 + i * 37 % 991, 2);
+            builder.addLine(new Date(i * 86400000L), price, price.add(BigDecimal.ONE), price.subtract(BigDecimal.ONE), price, price, (long)i);
+        }
+        Series series = builder.build();
+        long[] times = series.getTimes();
+        double[] highs = series.getValues(SeriesField.HIGH);
+
+        assertThat(times.length, equalTo(1000));
+        for (int i = 0; i < times.length; i++) {
+            assertThat(times[i], equalTo(series.getDate(i).getTime()));
+            assertThat(highs[i], equalTo(series.getHigh(i).doubleValue()));
+        }
+    }
+}
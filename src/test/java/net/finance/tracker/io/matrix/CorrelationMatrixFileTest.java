@@ -0,0 +1,95 @@
+package net.finance.tracker.io.matrix;
+
+import net.finance.tracker.domain.axis.Axis;
+import net.finance.tracker.domain.axis.SimpleAxis;
+import net.finance.tracker.domain.calculation.CorrelationMatrix;
+import net.finance.tracker.domain.calculation.CorrelationMatrixImpl;
+import net.finance.tracker.domain.calculation.PanelCorrelationMatrixCalculatorImpl;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CorrelationMatrixFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void when_streamingTiles_given_panelCalculator_then_mappedMatrixMatchesInMemory() throws Exception {
+        List<Axis> axes = randomAxes(new Random(11L), 40, 200);
+        PanelCorrelationMatrixCalculatorImpl calculator = new PanelCorrelationMatrixCalculatorImpl(new NoopListener());
+        Path path = folder.newFile("stocks.corr").toPath();
+        ForkJoinPool service = new ForkJoinPool(3);
+        CorrelationMatrix expected;
+        try {
+            expected = calculator.calculate(axes, service);
+            try (CorrelationMatrixFileWriter writer = new CorrelationMatrixFileWriter(path, labels(axes))) {
+                calculator.calculate(axes, writer, service);
+            }
+        } finally {
+            service.shutdown();
+        }
+
+        CorrelationMatrix actual = MappedCorrelationMatrix.open(path);
+        assertThat(actual.size(), equalTo(expected.size()));
+        for (int y = 0; y < expected.size(); y++) {
+            assertThat(actual.getAxisLabel(y), equalTo(expected.getAxisLabel(y)));
+            for (int x = 0; x < expected.size(); x++) {
+                assertThat(actual.getCell(x, y), equalTo(expected.getCell(x, y)));
+            }
+        }
+    }
+
+    @Test
+    public void when_writingMatrix_given_missingCells_then_readBackAsNull() throws Exception {
+        BigDecimal[][] data = new BigDecimal[3][3];
+        data[0][1] = data[1][0] = new BigDecimal("0.5");
+        data[1][2] = data[2][1] = new BigDecimal("-0.75");
+        Path path = folder.newFile("small.corr").toPath();
+        CorrelationMatrixFileWriter.write(path, new CorrelationMatrixImpl(Arrays.asList("A", "éè", "C"), data));
+
+        CorrelationMatrix actual = MappedCorrelationMatrix.open(path);
+        assertThat(actual.getAxisLabel(1), equalTo("éè"));
+        assertThat(actual.getCell(1, 0), equalTo(new BigDecimal("0.5")));
+        assertThat(actual.getCell(2, 1), equalTo(new BigDecimal("-0.75")));
+        assertThat(actual.getCell(0, 2), nullValue());
+        assertThat(actual.getCell(1, 1), nullValue());
+    }
+
+    private static List<String> labels(List<Axis> axes) {
+        List<String> labels = new ArrayList<>(axes.size());
+        for (Axis axis : axes) {
+            labels.add(axis.getSymbol());
+        }
+        return labels;
+    }
+
+    private static List<Axis> randomAxes(Random random, int nAxes, int nDates) {
+        List<Axis> axes = new ArrayList<>(nAxes);
+        for (int a = 0; a < nAxes; a++) {
+            List<Date> dates = new ArrayList<>(nDates);
+            List<BigDecimal> values = new ArrayList<>(nDates);
+            for (int i = 0; i < nDates; i++) {
+                if (random.nextInt(10) != 0) {
+                    dates.add(new Date(i * 86400000L));
+                    values.add(BigDecimal.valueOf(100.0 + random.nextGaussian()));
+                }
+            }
+            axes.add(new SimpleAxis(String.format("S%1$d", a), values.toArray(new BigDecimal[0]), dates.toArray(new Date[0])));
+        }
+        return axes;
+    }
+}
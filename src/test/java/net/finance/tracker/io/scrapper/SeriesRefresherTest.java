@@ -0,0 +1,135 @@
+package net.finance.tracker.io.scrapper;
+
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.StockSeries;
+import net.finance.tracker.io.store.SeriesStore;
+import net.finance.tracker.util.logging.NoopListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SeriesRefresherTest {
+    private static final long DAY = 86400000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void when_refreshing_given_storedSeries_then_onlyLastAndLaterBarsAreRequestedAndAppended() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath());
+        List<long[]> requests = new ArrayList<>();
+        SeriesRefresher.ScrapperFactory source = (symbol, from, to) -> {
+            requests.add(new long[] {from, to});
+            // The source overlaps the request by a day, as Yahoo may.
+            return () -> series(symbol, Math.max(0, (int)(from * 1000 / DAY) - 1), (int)(to * 1000 / DAY));
+        };
+
+        Series first = new SeriesRefresher("LSE.L", 0L, 10 * DAY / 1000, store, source, new NoopListener()).call();
+        Series second = new SeriesRefresher("LSE.L", 0L, 15 * DAY / 1000, store, source, new NoopListener()).call();
+        Series third = new SeriesRefresher("LSE.L", 0L, 15 * DAY / 1000, store, source, new NoopListener()).call();
+
+        assertThat(first.getLength(), equalTo(10));
+        assertThat(second.getLength(), equalTo(15));
+        assertThat(third.getLength(), equalTo(15));
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(1)[0], equalTo(9 * DAY / 1000));
+        for (int i = 0; i < second.getLength(); i++) {
+            assertThat(second.getDate(i), equalTo(new Date(i * DAY)));
+            assertThat(second.getClose(i).compareTo(BigDecimal.valueOf(100 + i)), equalTo(0));
+        }
+        assertThat(store.load("LSE.L").getLength(), equalTo(15));
+    }
+
+    @Test
+    public void when_refreshing_given_sourceUnavailable_then_storedSeriesIsServed() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath());
+        store.save(series("LSE.L", 0, 5));
+        SeriesRefresher.ScrapperFactory failing = (symbol, from, to) -> () -> {
+            throw new java.io.IOException("Source unavailable");
+        };
+
+        Series series = new SeriesRefresher("LSE.L", 0L, 30 * DAY / 1000, store, failing, new NoopListener()).call();
+
+        assertThat(series.getLength(), equalTo(5));
+    }
+
+    @Test
+    public void when_refreshing_given_restatedAdjustedCloses_then_wholeHistoryIsReloaded() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath());
+        store.save(series("LSE.L", 0, 10, BigDecimal.ONE, 0));
+        List<long[]> requests = new ArrayList<>();
+        // A dividend since the last refresh has scaled every past adjusted close.
+        BigDecimal adjustment = new BigDecimal("0.98");
+        SeriesRefresher.ScrapperFactory source = (symbol, from, to) -> {
+            requests.add(new long[] {from, to});
+            return () -> series(symbol, (int)(from * 1000 / DAY), (int)(to * 1000 / DAY), adjustment, 1);
+        };
+
+        Series series = new SeriesRefresher("LSE.L", 0L, 15 * DAY / 1000, store, source, new NoopListener()).call();
+
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(1)[0], equalTo(0L));
+        assertThat(series.getLength(), equalTo(15));
+        for (int i = 0; i < series.getLength(); i++) {
+            assertThat(series.getAdjClose(i).compareTo(BigDecimal.valueOf(100 + i).multiply(adjustment)), equalTo(0));
+        }
+        assertThat(store.load("LSE.L").getAdjClose(0).compareTo(BigDecimal.valueOf(100).multiply(adjustment)), equalTo(0));
+    }
+
+    @Test
+    public void when_refreshing_given_restatedAdjustedClosesAndPartialReload_then_storedSeriesIsKept() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath());
+        store.save(series("LSE.L", 0, 10, BigDecimal.ONE, 0));
+        BigDecimal adjustment = new BigDecimal("0.98");
+        List<Exception> exceptions = new ArrayList<>();
+        // The incremental request sees the restated close, but the full reload comes back empty or cut short.
+        for (int reloadDays : new int[] {0, 6}) {
+            SeriesRefresher.ScrapperFactory source = (symbol, from, to) -> from == 0L
+                    ? () -> series(symbol, 15 - reloadDays, 15, adjustment, 0)
+                    : () -> series(symbol, (int)(from * 1000 / DAY), (int)(to * 1000 / DAY), adjustment, 0);
+
+            Series series = new SeriesRefresher("LSE.L", 0L, 15 * DAY / 1000, store, source, exceptions::add).call();
+
+            assertThat(series.getLength(), equalTo(10));
+            assertThat(series.getAdjClose(0).compareTo(BigDecimal.valueOf(100)), equalTo(0));
+            Series kept = store.load("LSE.L");
+            assertThat(kept.getLength(), equalTo(10));
+            assertThat(kept.getAdjClose(0).compareTo(BigDecimal.valueOf(100)), equalTo(0));
+        }
+        assertThat(exceptions.size(), equalTo(2));
+    }
+
+    @Test
+    public void when_refreshing_given_freshDataQualityIssues_then_mergedSeriesCountsBoth() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath());
+        store.save(series("LSE.L", 0, 10, BigDecimal.ONE, 2));
+        SeriesRefresher.ScrapperFactory source = (symbol, from, to) -> () -> series(symbol, (int)(from * 1000 / DAY), (int)(to * 1000 / DAY), BigDecimal.ONE, 3);
+
+        Series series = new SeriesRefresher("LSE.L", 0L, 15 * DAY / 1000, store, source, new NoopListener()).call();
+
+        assertThat(series.getLength(), equalTo(15));
+        assertThat(series.getNDataQualityIssues(), equalTo(5));
+    }
+
+    private static Series series(String symbol, int firstDay, int stopDay) {
+        return series(symbol, firstDay, stopDay, BigDecimal.ONE, 0);
+    }
+
+    private static Series series(String symbol, int firstDay, int stopDay, BigDecimal adjustment, int issues) {
+        StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder(symbol);
+        for (int day = firstDay; day < stopDay; day++) {
+            BigDecimal price = BigDecimal.valueOf(100 + day);
+            builder.addLine(new Date(day * DAY), price, price, price, price, price.multiply(adjustment), 10L);
+        }
+        builder.addDataQualityIssues(issues);
+        return builder.build();
+    }
+}
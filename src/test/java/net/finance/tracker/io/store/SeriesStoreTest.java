@@ -0,0 +1,59 @@
+package net.finance.tracker.io.store;
+
+import net.finance.tracker.domain.series.FXSeries;
+import net.finance.tracker.domain.series.Series;
+import net.finance.tracker.domain.series.SeriesField;
+import net.finance.tracker.domain.series.StockSeries;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SeriesStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void when_loading_given_savedStockSeries_then_everyColumnRoundTrips() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath().resolve("store"));
+        StockSeries.StockSeriesBuilder builder = new StockSeries.StockSeriesBuilder("BARC.L");
+        for (int i = 0; i < 500; i++) {
+            BigDecimal price = BigDecimal.valueOf(150000 + i * 131 % 977, 3);
+            builder.addLine(new Date(i * 86400000L), price, price.add(BigDecimal.ONE), price.subtract(BigDecimal.ONE), price, price, 1000L + i);
+        }
+        StockSeries saved = (StockSeries)builder.build();
+        store.save(saved);
+        Series loaded = store.load("BARC.L");
+
+        assertThat(loaded, instanceOf(StockSeries.class));
+        assertThat(loaded.getSymbol(), equalTo("BARC.L"));
+        assertThat(loaded.getLength(), equalTo(saved.getLength()));
+        assertThat(loaded.getScale(), equalTo(saved.getScale()));
+        for (int i = 0; i < saved.getLength(); i++) {
+            assertThat(loaded.getDate(i), equalTo(saved.getDate(i)));
+            assertThat(loaded.getLow(i), equalTo(saved.getLow(i)));
+            assertThat(((StockSeries)loaded).getVolume(i), equalTo(saved.getVolume(i)));
+        }
+    }
+
+    @Test
+    public void when_loading_given_fxSeriesWithoutScale_then_doublesRoundTrip() throws Exception {
+        SeriesStore store = new SeriesStore(folder.getRoot().toPath());
+        FXSeries.FXSeriesBuilder builder = new FXSeries.FXSeriesBuilder("GBPEUR=X");
+        builder.addRow(new Date(0L), new BigDecimal("1.1234567890123456789"), new BigDecimal("1.2"), new BigDecimal("1.3"), new BigDecimal("1.0"), new BigDecimal("1.2"));
+        FXSeries saved = builder.build();
+        store.save(saved);
+        Series loaded = store.load("GBPEUR=X");
+
+        assertThat(loaded, instanceOf(FXSeries.class));
+        assertThat(loaded.getDoubleValue(SeriesField.OPEN, 0), equalTo(saved.getDoubleValue(SeriesField.OPEN, 0)));
+        assertThat(store.load("EURUSD=X"), nullValue());
+    }
+}